@@ -10,13 +10,21 @@ import android.database.sqlite.SQLiteOpenHelper;
 public class DatabaseHelper extends SQLiteOpenHelper {
     
     private static final String DATABASE_NAME = "icpx.db";
-    private static final int DATABASE_VERSION = 4;
+    private static final int DATABASE_VERSION = 5;
     
     // Friends table
     public static final String TABLE_FRIENDS = "friends";
     public static final String COLUMN_FRIEND_EMAIL = "friend_email";
     public static final String COLUMN_ADDED_AT = "added_at";
     
+    // Submissions table (local copy of Codeforces user.status)
+    public static final String TABLE_SUBMISSIONS = "submissions";
+    public static final String COLUMN_HANDLE = "handle";
+    public static final String COLUMN_CONTEST_ID = "contest_id";
+    public static final String COLUMN_PROBLEM_INDEX = "problem_index";
+    public static final String COLUMN_VERDICT = "verdict";
+    public static final String COLUMN_CREATION_TIME_SECONDS = "creation_time_seconds";
+    
     // Additional target columns
     public static final String COLUMN_DEADLINE = "deadline";
 
@@ -102,6 +110,20 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         // Initialize all_time_solve and all_time_history to 0
         db.execSQL("INSERT INTO " + TABLE_SETTINGS + " (" + COLUMN_KEY + ", " + COLUMN_VALUE + ") VALUES ('all_time_solve', '0')");
         db.execSQL("INSERT INTO " + TABLE_SETTINGS + " (" + COLUMN_KEY + ", " + COLUMN_VALUE + ") VALUES ('all_time_history', '0')");
+
+        createSubmissionsTable(db);
+    }
+
+    private void createSubmissionsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_SUBMISSIONS + " (" +
+                COLUMN_ID + " INTEGER PRIMARY KEY, " +
+                COLUMN_HANDLE + " TEXT NOT NULL, " +
+                COLUMN_CONTEST_ID + " INTEGER, " +
+                COLUMN_PROBLEM_INDEX + " TEXT, " +
+                COLUMN_VERDICT + " TEXT, " +
+                COLUMN_CREATION_TIME_SECONDS + " INTEGER)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_submissions_problem ON " + TABLE_SUBMISSIONS + "(" +
+                COLUMN_HANDLE + ", " + COLUMN_CONTEST_ID + ", " + COLUMN_PROBLEM_INDEX + ", " + COLUMN_VERDICT + ")");
     }
 
     @Override
@@ -135,5 +157,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             // Initialize user_rating in settings
             db.execSQL("INSERT OR IGNORE INTO " + TABLE_SETTINGS + " (" + COLUMN_KEY + ", " + COLUMN_VALUE + ") VALUES ('user_rating', '5.0')");
         }
+        if (oldVersion < 5 && newVersion >= 5) {
+            // Create submissions table for incremental submission sync
+            createSubmissionsTable(db);
+        }
     }
 }
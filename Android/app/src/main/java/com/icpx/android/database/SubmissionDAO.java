@@ -0,0 +1,103 @@
+package com.icpx.android.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.icpx.android.model.Submission;
+
+import java.util.List;
+
+/**
+ * Data Access Object for locally stored Codeforces submissions
+ * Handles are stored lower-cased since Codeforces handles are case-insensitive
+ */
+public class SubmissionDAO {
+
+    private DatabaseHelper dbHelper;
+
+    public SubmissionDAO(Context context) {
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Insert or refresh a set of submissions for a handle
+     */
+    public void insertSubmissions(String handle, List<Submission> submissions) {
+        if (submissions.isEmpty()) {
+            return;
+        }
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        String normalizedHandle = normalizeHandle(handle);
+        db.beginTransaction();
+        try {
+            for (Submission submission : submissions) {
+                ContentValues values = new ContentValues();
+                values.put(DatabaseHelper.COLUMN_ID, submission.getId());
+                values.put(DatabaseHelper.COLUMN_HANDLE, normalizedHandle);
+                values.put(DatabaseHelper.COLUMN_CONTEST_ID, submission.getContestId());
+                values.put(DatabaseHelper.COLUMN_PROBLEM_INDEX, submission.getProblemIndex());
+                values.put(DatabaseHelper.COLUMN_VERDICT, submission.getVerdict());
+                values.put(DatabaseHelper.COLUMN_CREATION_TIME_SECONDS, submission.getCreationTimeSeconds());
+                db.insertWithOnConflict(DatabaseHelper.TABLE_SUBMISSIONS, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Get the submission id up to which the stored history is final
+     * Submissions newer than this id must be (re)fetched; 0 means nothing is stored yet
+     */
+    public long getSyncFloorId(String handle) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        String[] args = new String[]{normalizeHandle(handle)};
+
+        Cursor pending = db.rawQuery("SELECT MIN(" + DatabaseHelper.COLUMN_ID + ") FROM " + DatabaseHelper.TABLE_SUBMISSIONS +
+                " WHERE " + DatabaseHelper.COLUMN_HANDLE + " = ? AND (" + DatabaseHelper.COLUMN_VERDICT + " IS NULL OR " +
+                DatabaseHelper.COLUMN_VERDICT + " = 'TESTING')", args);
+        try {
+            if (pending.moveToFirst() && !pending.isNull(0)) {
+                return pending.getLong(0) - 1;
+            }
+        } finally {
+            pending.close();
+        }
+
+        Cursor max = db.rawQuery("SELECT MAX(" + DatabaseHelper.COLUMN_ID + ") FROM " + DatabaseHelper.TABLE_SUBMISSIONS +
+                " WHERE " + DatabaseHelper.COLUMN_HANDLE + " = ?", args);
+        try {
+            if (max.moveToFirst() && !max.isNull(0)) {
+                return max.getLong(0);
+            }
+        } finally {
+            max.close();
+        }
+        return 0;
+    }
+
+    /**
+     * Check if a handle has an accepted submission for a problem
+     */
+    public boolean isProblemAccepted(String handle, String contestId, String problemIndex) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT 1 FROM " + DatabaseHelper.TABLE_SUBMISSIONS +
+                " WHERE " + DatabaseHelper.COLUMN_HANDLE + " = ? AND " + DatabaseHelper.COLUMN_CONTEST_ID + " = ? AND " +
+                DatabaseHelper.COLUMN_PROBLEM_INDEX + " = ? COLLATE NOCASE AND " + DatabaseHelper.COLUMN_VERDICT + " = 'OK' LIMIT 1",
+                new String[]{normalizeHandle(handle), contestId, problemIndex});
+        try {
+            return cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private String normalizeHandle(String handle) {
+        return handle.trim().toLowerCase();
+    }
+}
@@ -7,6 +7,7 @@ import com.google.firebase.auth.AuthCredential;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.GoogleAuthProvider;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.SetOptions;
 
@@ -249,11 +250,15 @@ public class FirebaseManager {
             docId = (String) targetData.get("id");
         }
         
+        // Server time of the change, so other devices can download only newer documents
+        Map<String, Object> data = new HashMap<>(targetData);
+        data.put("updatedAt", FieldValue.serverTimestamp());
+        
         firestore.collection("users")
                 .document(userId)
                 .collection("targets")
                 .document(docId)
-                .set(targetData, SetOptions.merge())
+                .set(data, SetOptions.merge())
                 .addOnSuccessListener(aVoid -> callback.onSuccess())
                 .addOnFailureListener(callback::onFailure);
     }
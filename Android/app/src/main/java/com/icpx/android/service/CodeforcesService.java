@@ -1,5 +1,9 @@
 package com.icpx.android.service;
 
+import com.icpx.android.BuildConfig;
+import com.icpx.android.database.SubmissionDAO;
+import com.icpx.android.model.Submission;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -7,6 +11,8 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,8 +21,10 @@ import java.util.regex.Pattern;
  */
 public class CodeforcesService {
 
-    private static final String API_BASE_URL = "https://codeforces.com/api/";
+    private static final String API_BASE_URL = BuildConfig.CODEFORCES_API_URL;
     private static final String PROBLEMSET_URL = "https://codeforces.com/problemset/problem/";
+    private static final int INCREMENTAL_PAGE_SIZE = 50;
+    private static final int FULL_SYNC_PAGE_SIZE = 1000;
 
     public static class ProblemDetails {
         public String name;
@@ -150,65 +158,107 @@ public class CodeforcesService {
 
     /**
      * Check if a user has solved a specific problem
+     * Syncs new submissions into the local submissions table, then answers from it
+     * @param submissionDAO Local submissions store
      * @param handle Codeforces handle
      * @param contestId Contest ID
      * @param problemIndex Problem index (A, B, C, etc.)
      * @return true if solved, false otherwise
      */
-    public boolean isProblemSolved(String handle, String contestId, String problemIndex) {
+    public boolean isProblemSolved(SubmissionDAO submissionDAO, String handle, String contestId, String problemIndex) {
         try {
-            String apiUrl = API_BASE_URL + "user.status?handle=" + handle + "&from=1&count=10000";
-            URL url = new URL(apiUrl);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
+            syncSubmissions(submissionDAO, handle);
+        } catch (Exception e) {
+            // Fall back to whatever is already stored locally
+            System.err.println("Exception in isProblemSolved: " + e.getMessage());
+            e.printStackTrace();
+        }
 
-            int responseCode = connection.getResponseCode();
-            if (responseCode != 200) {
-                System.err.println("API returned error code: " + responseCode);
-                return false;
-            }
+        boolean solved = submissionDAO.isProblemAccepted(handle, contestId, problemIndex);
+        if (solved) {
+            System.out.println("Problem solved: " + contestId + problemIndex);
+        }
+        return solved;
+    }
 
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(connection.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
+    /**
+     * Bring the local submissions table up to date for a handle
+     * Pages user.status from the newest submission back to the newest one already stored
+     */
+    public int syncSubmissions(SubmissionDAO submissionDAO, String handle) throws Exception {
+        long floorId = submissionDAO.getSyncFloorId(handle);
+        // Small first page for incremental syncs, large pages for the initial download
+        int pageSize = floorId > 0 ? INCREMENTAL_PAGE_SIZE : FULL_SYNC_PAGE_SIZE;
+        int from = 1;
+        List<Submission> fresh = new ArrayList<>();
+
+        while (true) {
+            List<Submission> page = fetchSubmissionsPage(handle, from, pageSize);
+            boolean reachedStored = false;
+
+            for (Submission submission : page) {
+                if (submission.getId() <= floorId) {
+                    reachedStored = true;
+                    break;
+                }
+                fresh.add(submission);
             }
-            reader.close();
 
-            JSONObject jsonResponse = new JSONObject(response.toString());
-            if (!jsonResponse.getString("status").equals("OK")) {
-                return false;
+            if (reachedStored || page.size() < pageSize) {
+                break;
             }
+            from += pageSize;
+            pageSize = FULL_SYNC_PAGE_SIZE;
+        }
 
-            JSONArray submissions = jsonResponse.getJSONArray("result");
-
-            // Check if any submission is accepted for this problem
-            for (int i = 0; i < submissions.length(); i++) {
-                JSONObject submission = submissions.getJSONObject(i);
-                JSONObject problem = submission.getJSONObject("problem");
-                
-                String subContestId = String.valueOf(problem.getInt("contestId"));
-                String subIndex = problem.getString("index");
-                String verdict = submission.optString("verdict", "");
-
-                if (subContestId.equals(contestId) && 
-                    subIndex.equalsIgnoreCase(problemIndex) && 
-                    verdict.equals("OK")) {
-                    System.out.println("Problem solved: " + contestId + problemIndex);
-                    return true;
-                }
-            }
+        submissionDAO.insertSubmissions(handle, fresh);
+        return fresh.size();
+    }
 
-        } catch (Exception e) {
-            System.err.println("Exception in isProblemSolved: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Fetch one page of a user's submissions (newest first)
+     */
+    private List<Submission> fetchSubmissionsPage(String handle, int from, int count) throws Exception {
+        String apiUrl = API_BASE_URL + "user.status?handle=" + handle + "&from=" + from + "&count=" + count;
+        URL url = new URL(apiUrl);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(10000);
+        connection.setReadTimeout(10000);
+
+        int responseCode = connection.getResponseCode();
+        if (responseCode != 200) {
+            throw new Exception("API returned error code: " + responseCode);
         }
 
-        return false;
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream()));
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            response.append(line);
+        }
+        reader.close();
+
+        JSONObject jsonResponse = new JSONObject(response.toString());
+        if (!jsonResponse.getString("status").equals("OK")) {
+            throw new Exception("API error: " + jsonResponse.optString("comment"));
+        }
+
+        JSONArray result = jsonResponse.getJSONArray("result");
+        List<Submission> submissions = new ArrayList<>();
+        for (int i = 0; i < result.length(); i++) {
+            JSONObject submission = result.getJSONObject(i);
+            JSONObject problem = submission.getJSONObject("problem");
+            String verdict = submission.has("verdict") ? submission.getString("verdict") : null;
+            submissions.add(new Submission(
+                    submission.getLong("id"),
+                    problem.optInt("contestId"),
+                    problem.optString("index"),
+                    verdict,
+                    submission.getLong("creationTimeSeconds")));
+        }
+        return submissions;
     }
 
     /**
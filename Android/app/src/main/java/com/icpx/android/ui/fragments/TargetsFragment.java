@@ -21,6 +21,7 @@ import com.google.firebase.auth.FirebaseUser;
 import com.icpx.android.R;
 import com.icpx.android.adapters.TargetAdapter;
 import com.icpx.android.database.TargetDAO;
+import com.icpx.android.database.SubmissionDAO;
 import com.icpx.android.firebase.FirebaseManager;
 import com.icpx.android.model.Target;
 import com.icpx.android.service.CodeforcesService;
@@ -53,6 +54,7 @@ public class TargetsFragment extends Fragment {
     private TargetDAO targetDAO;
     private String currentFilter = "all";
     private CodeforcesService codeforcesService;
+    private SubmissionDAO submissionDAO;
     private android.app.ProgressDialog progressDialog;
     private boolean duplicatesRemoved = false; // Track if duplicates have been removed
 
@@ -65,6 +67,7 @@ public class TargetsFragment extends Fragment {
         initViews(view);
         targetDAO = new TargetDAO(requireContext());
         codeforcesService = new CodeforcesService();
+        submissionDAO = new SubmissionDAO(requireContext());
         
         setupTabLayout();
         setupRecyclerView();
@@ -423,7 +426,7 @@ public class TargetsFragment extends Fragment {
 
         // Check in background
         new Thread(() -> {
-            boolean isSolved = codeforcesService.isProblemSolved(cfHandle, contestId, problemIndex);
+            boolean isSolved = codeforcesService.isProblemSolved(submissionDAO, cfHandle, contestId, problemIndex);
 
             requireActivity().runOnUiThread(() -> {
                 if (progressDialog != null && progressDialog.isShowing()) {
@@ -6,8 +6,9 @@ import javafx.scene.layout.GridPane;
 import javafx.util.Pair;
 import com.icpx.MainApp;
 import com.icpx.model.Contest;
+import com.icpx.service.AsyncCodeforcesService;
 import com.icpx.service.CodeforcesService;
-import javafx.application.Platform;
+import com.icpx.util.ViewScope;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -16,13 +17,13 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 
 import java.awt.Desktop;
-import java.io.IOException;
 import java.net.URI;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -51,16 +52,21 @@ public class ContestsController {
     @FXML
     private ProgressIndicator progressIndicator;
 
+    private AsyncCodeforcesService asyncService;
     private CodeforcesService codeforcesService;
+    private ViewScope viewScope;
     private ObservableList<Contest> allContests;
 
     @FXML
     public void initialize() {
-        codeforcesService = new CodeforcesService();
+        asyncService = AsyncCodeforcesService.getInstance();
+        codeforcesService = asyncService.getCodeforcesService();
+        // Cancel pending loads when the user navigates away from Contests
+        viewScope = ViewScope.bindTo(contestTabPane);
         allContests = FXCollections.observableArrayList();
         
         setupTables();
-        loadContests();
+        loadContests(false);
     }
 
     private void setupTables() {
@@ -146,44 +152,82 @@ public class ContestsController {
 
     @FXML
     private void handleRefresh() {
-        loadContests();
+        loadContests(true);
     }
 
-    private void loadContests() {
+    /**
+     * Paint cached contests right away, then swap in fresh data if the cache is stale
+     * @param revalidate true to revalidate with Codeforces even if the cache is fresh
+     */
+    private void loadContests(boolean revalidate) {
         progressIndicator.setVisible(true);
         statusLabel.setText("Loading contests...");
         refreshButton.setDisable(true);
-        
-        new Thread(() -> {
-            try {
-                List<Contest> contests = codeforcesService.fetchContests(false);
-                
-                Platform.runLater(() -> {
-                    allContests.setAll(contests);
-                    filterContests();
-                    progressIndicator.setVisible(false);
-                    statusLabel.setText("Loaded " + contests.size() + " contests");
-                    refreshButton.setDisable(false);
-                    
-                    // Save upcoming contests to DAO for reminders
-                    new Thread(() -> {
-                        com.icpx.database.ContestDAO.saveContests(contests);
-                    }).start();
-                });
-            } catch (IOException e) {
-                Platform.runLater(() -> {
+
+        CompletableFuture<CachedContests> cachedFuture = asyncService.submit("cachedContests", 30, () ->
+            new CachedContests(codeforcesService.getCachedContests(false), codeforcesService.isContestListFresh(false)));
+
+        viewScope.handle(cachedFuture, cached -> {
+            boolean fresh = !revalidate && cached.fresh;
+            if (cached.contests != null) {
+                allContests.setAll(cached.contests);
+                filterContests();
+                statusLabel.setText("Loaded " + cached.contests.size() + " contests" + (fresh ? "" : " (cached, refreshing...)"));
+                if (fresh) {
                     progressIndicator.setVisible(false);
-                    statusLabel.setText("Error loading contests: " + e.getMessage());
                     refreshButton.setDisable(false);
-                    
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setHeaderText("Failed to load contests");
-                    alert.setContentText(e.getMessage());
-                    alert.showAndWait();
-                });
+                    return;
+                }
+            }
+            fetchFreshContests(revalidate, cached.contests != null);
+        }, error -> fetchFreshContests(revalidate, false));
+    }
+
+    private void fetchFreshContests(boolean revalidate, boolean showingCached) {
+        viewScope.handle(asyncService.fetchContests(false, revalidate), contests -> {
+            allContests.setAll(contests);
+            filterContests();
+            progressIndicator.setVisible(false);
+            // While degraded the service answers from its stale cache
+            statusLabel.setText("Loaded " + contests.size() + " contests"
+                + (codeforcesService.isDegraded() ? " (cached — Codeforces degraded)" : ""));
+            refreshButton.setDisable(false);
+            
+            // Upcoming and running contests are stored for reminders (the DAO skips finished ones)
+            new Thread(() -> {
+                com.icpx.database.ContestDAO.saveContests(contests);
+            }).start();
+        }, error -> {
+            String message = AsyncCodeforcesService.describeError(error);
+            progressIndicator.setVisible(false);
+            refreshButton.setDisable(false);
+
+            if (showingCached) {
+                // Keep showing the cached list
+                statusLabel.setText("Showing cached contests (refresh failed: " + message + ")");
+                return;
             }
-        }).start();
+            statusLabel.setText("Error loading contests: " + message);
+            
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("Failed to load contests");
+            alert.setContentText(message);
+            alert.showAndWait();
+        });
+    }
+
+    /**
+     * Cached contest list and whether it is still within its TTL
+     */
+    private static class CachedContests {
+        final List<Contest> contests;
+        final boolean fresh;
+
+        CachedContests(List<Contest> contests, boolean fresh) {
+            this.contests = contests;
+            this.fresh = fresh;
+        }
     }
 
     private void filterContests() {
@@ -234,39 +278,30 @@ public class ContestsController {
         progressIndicator.setVisible(true);
         statusLabel.setText("Importing problems from contest " + contest.getId() + "...");
         
-        new Thread(() -> {
-            try {
-                List<CodeforcesService.ContestProblem> problems = 
-                    codeforcesService.fetchContestProblems(String.valueOf(contest.getId()));
-                
-                Platform.runLater(() -> {
-                    progressIndicator.setVisible(false);
-                    
-                    if (problems.isEmpty()) {
-                        statusLabel.setText("No problems found in contest");
-                        Alert alert = new Alert(Alert.AlertType.WARNING);
-                        alert.setTitle("Import Result");
-                        alert.setHeaderText("No problems found");
-                        alert.setContentText("The contest may not have started yet or has no problems.");
-                        alert.showAndWait();
-                    } else {
-                        statusLabel.setText("Found " + problems.size() + " problems");
-                        showImportDialog(contest, problems);
-                    }
-                });
-            } catch (IOException e) {
-                Platform.runLater(() -> {
-                    progressIndicator.setVisible(false);
-                    statusLabel.setText("Error importing contest");
-                    
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Import Error");
-                    alert.setHeaderText("Failed to import contest");
-                    alert.setContentText(e.getMessage());
-                    alert.showAndWait();
-                });
+        viewScope.handle(asyncService.fetchContestProblems(String.valueOf(contest.getId())), problems -> {
+            progressIndicator.setVisible(false);
+            
+            if (problems.isEmpty()) {
+                statusLabel.setText("No problems found in contest");
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Import Result");
+                alert.setHeaderText("No problems found");
+                alert.setContentText("The contest may not have started yet or has no problems.");
+                alert.showAndWait();
+            } else {
+                statusLabel.setText("Found " + problems.size() + " problems");
+                showImportDialog(contest, problems);
             }
-        }).start();
+        }, error -> {
+            progressIndicator.setVisible(false);
+            statusLabel.setText("Error importing contest");
+            
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Import Error");
+            alert.setHeaderText("Failed to import contest");
+            alert.setContentText(AsyncCodeforcesService.describeError(error));
+            alert.showAndWait();
+        });
     }
 
     private void showImportDialog(Contest contest, List<CodeforcesService.ContestProblem> problems) {
@@ -335,7 +370,7 @@ public class ContestsController {
     }
 
     private void saveImportedProblems(List<CodeforcesService.ContestProblem> problems, Contest contest) {
-        int count = 0;
+        List<Target> targets = new java.util.ArrayList<>();
         for (CodeforcesService.ContestProblem problem : problems) {
             Target target = new Target();
             target.setType("problem");
@@ -346,17 +381,21 @@ public class ContestsController {
             target.setWebsiteUrl("Codeforces");
             target.setCreatedAt(java.time.LocalDateTime.now());
             target.setStatus("pending");
-            
-            // Try to insert
-            if (TargetDAO.insertTarget(target)) {
-                count++;
-            }
+            targets.add(target);
         }
+
+        // One transaction for the whole contest; problems already in targets are skipped
+        TargetDAO.BulkInsertResult result = TargetDAO.insertTargets(targets);
         
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        Alert alert = new Alert(result != null ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
         alert.setTitle("Import Complete");
         alert.setHeaderText(null);
-        alert.setContentText("Successfully imported " + count + " problems to Targets.");
+        if (result == null) {
+            alert.setContentText("Failed to import problems.");
+        } else {
+            alert.setContentText("Successfully imported " + result.inserted.size() + " problems to Targets."
+                + (result.skipped.isEmpty() ? "" : " " + result.skipped.size() + " were already there."));
+        }
         alert.showAndWait();
     }
 }
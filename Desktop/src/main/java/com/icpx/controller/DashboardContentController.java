@@ -7,8 +7,9 @@ import com.icpx.database.TargetDAO;
 import com.icpx.database.UserDAO;
 import com.icpx.model.Target;
 import com.icpx.model.User;
-import com.icpx.service.CodeforcesService;
+import com.icpx.service.AsyncCodeforcesService;
 import com.icpx.util.SceneManager;
+import com.icpx.util.ViewScope;
 import com.icpx.view.ActivityHeatmapView;
 import com.icpx.view.HistoryView;
 import com.icpx.view.PersonalRatingChart;
@@ -30,11 +31,15 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class DashboardContentController {
 
+    private static final int RATING_HISTORY_SIZE = 50;
+
     @FXML
     private Text welcomeText;
 
@@ -56,15 +61,19 @@ public class DashboardContentController {
     @FXML
     private VBox ratingBarContainer;
 
-    private CodeforcesService codeforcesService = new CodeforcesService();
+    private AsyncCodeforcesService asyncService = AsyncCodeforcesService.getInstance();
+    private ViewScope viewScope;
 
     @FXML
     public void initialize() {
+        // Cancel Codeforces calls when the user navigates away from the dashboard
+        viewScope = ViewScope.bindTo(recentTargetsContainer);
         try {
             User user = UserDAO.getCurrentUser();
             welcomeText.setText("Welcome, " + (user != null ? user.getUsername() : "User") + "!");
 
             createUserRatingBar();
+            watchRating();
             createDailyStats();
             createAllTimeStats();
             createPersonalRatingChart();
@@ -76,6 +85,24 @@ public class DashboardContentController {
         }
     }
     
+    /**
+     * Redraw the rating bar whenever the rating setting changes (e.g. a target is verified)
+     */
+    private void watchRating() {
+        BiConsumer<String, String> listener = (key, value) -> {
+            if ("user_rating".equals(key)) {
+                Platform.runLater(() -> {
+                    if (!viewScope.isClosed()) {
+                        createUserRatingBar();
+                        createPersonalRatingChart();
+                    }
+                });
+            }
+        };
+        SettingsDAO.addChangeListener(listener);
+        viewScope.onClose(() -> SettingsDAO.removeChangeListener(listener));
+    }
+
     private void createUserRatingBar() {
         ratingBarContainer.getChildren().clear();
         
@@ -165,21 +192,14 @@ public class DashboardContentController {
         String handle = SettingsDAO.getCodeforcesHandle();
         if (handle == null || handle.isEmpty()) return;
 
-        new Thread(() -> {
-            try {
-                boolean accepted = codeforcesService.checkProblemAccepted(handle, target.getProblemLink());
-                Platform.runLater(() -> {
-                    if (accepted) {
-                        TargetDAO.updateTargetStatusWithRating(target.getId(), "achieved");
-                        displayRecentTargets();
-                        createDailyStats();
-                        createAllTimeStats();
-                    }
-                });
-            } catch (IOException e) {
-                e.printStackTrace();
+        viewScope.handle(asyncService.checkProblemAccepted(handle, target.getProblemLink()), accepted -> {
+            if (accepted) {
+                TargetDAO.updateTargetStatusWithRating(target.getId(), "achieved");
+                displayRecentTargets();
+                createDailyStats();
+                createAllTimeStats();
             }
-        }).start();
+        }, Throwable::printStackTrace);
     }
 
     private void deleteTarget(Target target) {
@@ -210,7 +230,7 @@ public class DashboardContentController {
         // Get actual count of achieved problems
         int solvedCount = TargetDAO.getTargetCountByStatus("achieved");
         // Count only topics, not all achieved
-        int topicsCount = TargetDAO.getAchievedTopics().size();
+        int topicsCount = TargetDAO.getAchievedStats("topic").count;
         
         // Total Solved Problems Card
         VBox solvedCard = createStatCard("Total Problems Solved", String.valueOf(solvedCount), "View History", e -> {
@@ -263,11 +283,14 @@ public class DashboardContentController {
     private void createPersonalRatingChart() {
         PersonalRatingChart ratingView = new PersonalRatingChart();
         
-        // Calculate rating based on solved problems
-        int solvedCount = TargetDAO.getTargetCountByStatus("achieved");
-        double rating = Math.min(10.0, solvedCount / 10.0);
-        
-        ratingView.setRating(rating);
+        // The icpX rating, so the bar and its history line (the rating ledger) show the same metric
+        ratingView.setRating(SettingsDAO.getUserRating());
+
+        List<Double> history = new ArrayList<>();
+        for (SettingsDAO.RatingEvent event : SettingsDAO.getRatingHistory(RATING_HISTORY_SIZE)) {
+            history.add(event.rating);
+        }
+        ratingView.setHistory(history);
         ratingGraphContainer.getChildren().setAll(ratingView);
     }
 
@@ -279,43 +302,35 @@ public class DashboardContentController {
         loadingText.setStyle("-fx-font-style: italic; -fx-fill: #666;");
         heatmapContainer.getChildren().setAll(loadingText);
 
-        new Thread(() -> {
-            try {
-                String handle = SettingsDAO.getCodeforcesHandle();
-                if (handle != null && !handle.isEmpty()) {
-                    Map<java.time.LocalDate, Integer> activityData = TargetDAO.getActivityHeatmapData();
-                    
-                    // If local data is empty, try fetching from Codeforces
-                    if (activityData.isEmpty()) {
-                        CodeforcesService service = new CodeforcesService();
-                        try {
-                            activityData = service.fetchSubmissionActivity(handle);
-                        } catch (IOException e) {
-                            System.err.println("Failed to fetch CF activity: " + e.getMessage());
-                        }
-                    }
-                    
-                    final Map<java.time.LocalDate, Integer> finalData = activityData;
-                    Platform.runLater(() -> {
-                        heatmapView.setData(finalData);
-                        heatmapContainer.getChildren().setAll(heatmapView);
-                    });
-                } else {
-                    Platform.runLater(() -> {
-                        Text placeholder = new Text("Set Codeforces handle in Settings to see activity");
-                        placeholder.setStyle("-fx-font-style: italic; -fx-fill: #666;");
-                        heatmapContainer.getChildren().setAll(placeholder);
-                    });
+        String handle = SettingsDAO.getCodeforcesHandle();
+        if (handle == null || handle.isEmpty()) {
+            Text placeholder = new Text("Set Codeforces handle in Settings to see activity");
+            placeholder.setStyle("-fx-font-style: italic; -fx-fill: #666;");
+            heatmapContainer.getChildren().setAll(placeholder);
+            return;
+        }
+
+        viewScope.handle(asyncService.submit("heatmap:" + handle, 180, () -> {
+            Map<java.time.LocalDate, Integer> activityData = TargetDAO.getActivityHeatmapData();
+            
+            // If local data is empty, try fetching from Codeforces
+            if (activityData.isEmpty()) {
+                try {
+                    activityData = asyncService.getCodeforcesService().fetchSubmissionActivity(handle);
+                } catch (IOException e) {
+                    System.err.println("Failed to fetch CF activity: " + e.getMessage());
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-                Platform.runLater(() -> {
-                    Text errorText = new Text("Error loading activity");
-                    errorText.setStyle("-fx-fill: red;");
-                    heatmapContainer.getChildren().setAll(errorText);
-                });
             }
-        }).start();
+            return activityData;
+        }), activityData -> {
+            heatmapView.setData(activityData);
+            heatmapContainer.getChildren().setAll(heatmapView);
+        }, error -> {
+            error.printStackTrace();
+            Text errorText = new Text("Error loading activity");
+            errorText.setStyle("-fx-fill: red;");
+            heatmapContainer.getChildren().setAll(errorText);
+        });
     }
     
     // Remove old renderHeatmap method as it is now in ActivityHeatmapView
@@ -2,8 +2,11 @@ package com.icpx.controller;
 
 import com.icpx.database.UserDAO;
 import com.icpx.model.User;
+import com.icpx.service.AsyncCodeforcesService;
+import com.icpx.service.CircuitBreaker;
 import com.icpx.util.SceneManager;
 import com.icpx.view.LoginView;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -13,8 +16,10 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 
 public class DashboardController {
 
@@ -27,12 +32,38 @@ public class DashboardController {
     @FXML
     private StackPane logoContainer;
 
+    @FXML
+    private Text degradedText;
+
     @FXML
     public void initialize() {
         createLogo();
+        watchCodeforcesStatus();
         showDashboard();
     }
 
+    /**
+     * Show a "Codeforces degraded" badge while the API circuit breaker is not closed
+     */
+    private void watchCodeforcesStatus() {
+        CircuitBreaker breaker = AsyncCodeforcesService.getInstance().getCodeforcesService().getCircuitBreaker();
+        Consumer<CircuitBreaker.State> listener = state -> Platform.runLater(() -> setDegraded(state));
+        breaker.addStateListener(listener);
+        setDegraded(breaker.getState());
+
+        mainRoot.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                breaker.removeStateListener(listener);
+            }
+        });
+    }
+
+    private void setDegraded(CircuitBreaker.State state) {
+        boolean degraded = state != CircuitBreaker.State.CLOSED;
+        degradedText.setVisible(degraded);
+        degradedText.setManaged(degraded);
+    }
+
     private void createLogo() {
         logoContainer.getChildren().clear();
         
@@ -4,21 +4,32 @@ import com.icpx.database.TargetDAO;
 import com.icpx.model.Target;
 import com.icpx.util.SceneManager;
 import com.icpx.view.DashboardView;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class HistoryController {
 
+    private static final int SEARCH_LIMIT = 200;
+    private static final int PAGE_SIZE = 100;
+    // Rows from the end of the loaded list at which the next page is fetched
+    private static final int PREFETCH_ROWS = 20;
+
     @FXML
     private Button backButton;
 
+    @FXML
+    private TextField searchField;
+
     @FXML
     private Text totalSolvedText;
 
@@ -41,11 +52,16 @@ public class HistoryController {
     private TableColumn<Target, String> dateColumn;
 
     private ObservableList<Target> solvedProblems;
+    // Where the next page starts; null once everything is loaded
+    private TargetDAO.PageCursor nextPage;
+    private boolean pageRequested;
 
     @FXML
     public void initialize() {
         setupTable();
+        setupPaging();
         loadSolvedProblems();
+        setupSearch();
     }
 
     private void setupTable() {
@@ -96,24 +112,64 @@ public class HistoryController {
     }
 
     private void loadSolvedProblems() {
-        List<Target> problems = TargetDAO.getAchievedProblems();
-        solvedProblems = FXCollections.observableArrayList(problems);
+        TargetDAO.TargetPage page = TargetDAO.getAchievedPage("problem", null, PAGE_SIZE);
+        solvedProblems = FXCollections.observableArrayList(page.targets);
+        nextPage = page.next;
         problemsTable.setItems(solvedProblems);
 
-        // Update statistics
-        totalSolvedText.setText(String.valueOf(problems.size()));
-
-        // Calculate average rating
-        if (!problems.isEmpty()) {
-            double avgRating = problems.stream()
-                    .filter(p -> p.getRating() != null)
-                    .mapToInt(Target::getRating)
-                    .average()
-                    .orElse(0.0);
-            avgRatingText.setText(String.format("%.0f", avgRating));
-        } else {
-            avgRatingText.setText("0");
+        // Statistics cover every solved problem, not just the loaded pages
+        TargetDAO.AchievedStats stats = TargetDAO.getAchievedStats("problem");
+        totalSolvedText.setText(String.valueOf(stats.count));
+        avgRatingText.setText(String.format("%.0f", stats.averageRating));
+    }
+
+    /**
+     * Fetch the next page when a row near the end of the loaded list is shown
+     */
+    private void setupPaging() {
+        problemsTable.setRowFactory(table -> new TableRow<Target>() {
+            @Override
+            protected void updateItem(Target item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && !pageRequested && nextPage != null
+                        && getTableView().getItems() == solvedProblems && getIndex() >= solvedProblems.size() - PREFETCH_ROWS) {
+                    // The list must not change while the table lays out its rows
+                    pageRequested = true;
+                    Platform.runLater(HistoryController.this::loadNextPage);
+                }
+            }
+        });
+    }
+
+    private void loadNextPage() {
+        pageRequested = false;
+        if (nextPage == null) {
+            return;
+        }
+        TargetDAO.TargetPage page = TargetDAO.getAchievedPage("problem", nextPage, PAGE_SIZE);
+        nextPage = page.next;
+        solvedProblems.addAll(page.targets);
+    }
+
+    /**
+     * Filter the table through the full-text index as the user types
+     */
+    private void setupSearch() {
+        // Wait for a pause in typing instead of querying on every key
+        PauseTransition debounce = new PauseTransition(Duration.millis(200));
+        debounce.setOnFinished(e -> applySearch(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> debounce.playFromStart());
+    }
+
+    private void applySearch(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            problemsTable.setItems(solvedProblems);
+            problemsTable.setPlaceholder(null);
+            return;
         }
+        List<Target> results = TargetDAO.search(query, "problem", "achieved", SEARCH_LIMIT);
+        problemsTable.setItems(FXCollections.observableArrayList(results));
+        problemsTable.setPlaceholder(new Label("No matches for \"" + query.trim() + "\""));
     }
 
     @FXML
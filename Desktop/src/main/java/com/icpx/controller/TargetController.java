@@ -3,8 +3,10 @@ package com.icpx.controller;
 import com.icpx.database.SettingsDAO;
 import com.icpx.database.TargetDAO;
 import com.icpx.model.Target;
+import com.icpx.service.AsyncCodeforcesService;
 import com.icpx.service.CodeforcesService;
-import javafx.application.Platform;
+import com.icpx.service.CodeforcesUnavailableException;
+import com.icpx.util.ViewScope;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -25,18 +27,34 @@ import java.util.Optional;
 
 public class TargetController {
 
+    private static final int PAGE_SIZE = 30;
+
     @FXML
     private HBox statsContainer;
 
     @FXML
     private VBox targetListContainer;
 
-    private CodeforcesService codeforcesService = new CodeforcesService();
+    @FXML
+    private ScrollPane targetScrollPane;
+
+    private AsyncCodeforcesService asyncService = AsyncCodeforcesService.getInstance();
+    private CodeforcesService codeforcesService = asyncService.getCodeforcesService();
+    private ViewScope viewScope;
+    // Where the next page of cards starts; null once every target is shown
+    private TargetDAO.PageCursor nextPage;
+    private boolean loadingPage;
 
     @FXML
     public void initialize() {
+        // Cancel Codeforces calls when the user navigates away from Targets
+        viewScope = ViewScope.bindTo(targetListContainer);
         refreshStats();
         refreshTargetList();
+
+        // Load more cards as the user nears the bottom, or while the list is too short to scroll
+        targetScrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> loadMoreIfNeeded());
+        targetListContainer.heightProperty().addListener((obs, oldValue, newValue) -> loadMoreIfNeeded());
     }
     
     private void refreshStats() {
@@ -67,17 +85,56 @@ public class TargetController {
 
     private void refreshTargetList() {
         targetListContainer.getChildren().clear();
-        List<Target> targets = TargetDAO.getAllTargets();
+        nextPage = null;
+        TargetDAO.TargetPage page = TargetDAO.getActiveTargetsPage(null, PAGE_SIZE);
 
-        if (targets.isEmpty()) {
+        if (page.targets.isEmpty()) {
             Text emptyText = new Text("No targets yet. Add your first target!");
             emptyText.getStyleClass().add("subtitle");
             emptyText.setStyle("-fx-font-style: italic;");
             targetListContainer.getChildren().add(emptyText);
         } else {
-            for (Target target : targets) {
-                targetListContainer.getChildren().add(createTargetCard(target));
+            appendPage(page);
+        }
+    }
+
+    private void appendPage(TargetDAO.TargetPage page) {
+        for (Target target : page.targets) {
+            targetListContainer.getChildren().add(createTargetCard(target));
+        }
+        nextPage = page.next;
+    }
+
+    /**
+     * Append pages until the user is more than a screen away from the end
+     */
+    private void loadMoreIfNeeded() {
+        if (loadingPage) {
+            return;
+        }
+        loadingPage = true;
+        try {
+            while (nextPage != null) {
+                double viewportHeight = targetScrollPane.getViewportBounds().getHeight();
+                if (viewportHeight <= 0) {
+                    break; // Not laid out yet
+                }
+                double scrollable = Math.max(0, targetListContainer.getHeight() - viewportHeight);
+                if ((1 - targetScrollPane.getVvalue()) * scrollable > viewportHeight) {
+                    break;
+                }
+
+                // vvalue is relative, so keep the pixel offset or the view jumps as the content grows
+                double offset = targetScrollPane.getVvalue() * scrollable;
+                appendPage(TargetDAO.getActiveTargetsPage(nextPage, PAGE_SIZE));
+                targetScrollPane.layout();
+                double newScrollable = targetListContainer.getHeight() - viewportHeight;
+                if (newScrollable > 0) {
+                    targetScrollPane.setVvalue(offset / newScrollable);
+                }
             }
+        } finally {
+            loadingPage = false;
         }
     }
 
@@ -240,43 +297,38 @@ public class TargetController {
     }
 
     private void importContest(String contestId, String fromProblem, String toProblem) {
-        new Thread(() -> {
-            try {
-                List<CodeforcesService.ContestProblem> problems = codeforcesService.fetchContestProblems(contestId);
+        viewScope.handle(asyncService.fetchContestProblems(contestId), problems -> {
+            if (problems.isEmpty()) {
+                showAlert(Alert.AlertType.ERROR, "Error", "No problems found or invalid contest ID");
+            } else {
+                // Filter problems based on selected range
+                List<CodeforcesService.ContestProblem> filteredProblems = filterProblemsByRange(problems, fromProblem, toProblem);
                 
-                Platform.runLater(() -> {
-                    if (problems.isEmpty()) {
-                        showAlert(Alert.AlertType.ERROR, "Error", "No problems found or invalid contest ID");
-                    } else {
-                        // Filter problems based on selected range
-                        List<CodeforcesService.ContestProblem> filteredProblems = filterProblemsByRange(problems, fromProblem, toProblem);
-                        
-                        if (filteredProblems.isEmpty()) {
-                            showAlert(Alert.AlertType.WARNING, "No Problems", 
-                                "No problems found in the range " + fromProblem + " to " + toProblem);
-                            return;
-                        }
-                        
-                        int count = 0;
-                        for (CodeforcesService.ContestProblem problem : filteredProblems) {
-                            Target target = new Target("problem", problem.name);
-                            target.setProblemLink(problem.getUrl());
-                            if (TargetDAO.insertTarget(target)) {
-                                count++;
-                            }
-                        }
-                        refreshTargetList();
-                        refreshStats();
-                        showAlert(Alert.AlertType.INFORMATION, "Success", 
-                            "Imported " + count + " problems (" + fromProblem + " to " + toProblem + ") from contest " + contestId);
-                    }
-                });
-            } catch (IOException e) {
-                Platform.runLater(() -> 
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to fetch contest: " + e.getMessage())
-                );
+                if (filteredProblems.isEmpty()) {
+                    showAlert(Alert.AlertType.WARNING, "No Problems", 
+                        "No problems found in the range " + fromProblem + " to " + toProblem);
+                    return;
+                }
+                
+                List<Target> targets = new ArrayList<>();
+                for (CodeforcesService.ContestProblem problem : filteredProblems) {
+                    Target target = new Target("problem", problem.name);
+                    target.setProblemLink(problem.getUrl());
+                    targets.add(target);
+                }
+                TargetDAO.BulkInsertResult result = TargetDAO.insertTargets(targets);
+                if (result == null) {
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to import problems");
+                    return;
+                }
+                refreshTargetList();
+                refreshStats();
+                String skippedMsg = result.skipped.isEmpty() ? "" : ", " + result.skipped.size() + " already in your targets";
+                showAlert(Alert.AlertType.INFORMATION, "Success", 
+                    "Imported " + result.inserted.size() + " problems (" + fromProblem + " to " + toProblem + ") from contest " + contestId + skippedMsg);
             }
-        }).start();
+        }, error -> showAlert(Alert.AlertType.ERROR, "Error",
+            "Failed to fetch contest: " + AsyncCodeforcesService.describeError(error)));
     }
 
     private List<CodeforcesService.ContestProblem> filterProblemsByRange(
@@ -313,35 +365,55 @@ public class TargetController {
             return;
         }
 
-        new Thread(() -> {
-            try {
-                boolean accepted = codeforcesService.checkProblemAccepted(handle, target.getProblemLink());
-                
-                Platform.runLater(() -> {
-                    if (accepted) {
-                        target.setStatus("achieved");
-                        double ratingChange = TargetDAO.updateTargetStatusWithRating(target.getId(), "achieved");
-                        String ratingMsg = ratingChange >= 0 ? 
-                            String.format(" Rating +%.2f", ratingChange) : 
-                            String.format(" Rating %.2f (late penalty)", ratingChange);
-                        showAlert(Alert.AlertType.INFORMATION, "Success!", 
-                            "Problem accepted! Target achieved! 🎉" + ratingMsg);
-                    } else {
-                        target.setStatus("failed");
-                        TargetDAO.updateTargetStatus(target.getId(), "failed");
-                        showAlert(Alert.AlertType.WARNING, "Not Accepted", 
-                            "Problem not accepted yet. Try again!");
-                    }
-                    refreshTargetList();
-                    refreshStats();
-                });
-            } catch (IOException e) {
-                Platform.runLater(() -> 
-                    showAlert(Alert.AlertType.ERROR, "Error", 
-                        "Failed to check status: " + e.getMessage())
-                );
+        viewScope.handle(asyncService.checkProblemAccepted(handle, target.getProblemLink()), accepted -> {
+            if (accepted) {
+                target.setStatus("achieved");
+                double ratingChange = TargetDAO.updateTargetStatusWithRating(target.getId(), "achieved");
+                String ratingMsg = ratingChange >= 0 ? 
+                    String.format(" Rating +%.2f", ratingChange) : 
+                    String.format(" Rating %.2f (late penalty)", ratingChange);
+                showAlert(Alert.AlertType.INFORMATION, "Success!", 
+                    "Problem accepted! Target achieved! 🎉" + ratingMsg);
+            } else {
+                target.setStatus("failed");
+                TargetDAO.updateTargetStatus(target.getId(), "failed");
+                showAlert(Alert.AlertType.WARNING, "Not Accepted", 
+                    "Problem not accepted yet. Try again!");
             }
-        }).start();
+            refreshTargetList();
+            refreshStats();
+        }, error -> showCheckError("Failed to check status", error));
+    }
+
+    @FXML
+    private void checkAllPending() {
+        String handle = SettingsDAO.getCodeforcesHandle();
+        if (handle == null || handle.isEmpty()) {
+            showAlert(Alert.AlertType.WARNING, "Missing Handle", 
+                "Please set your Codeforces handle in Settings first!");
+            return;
+        }
+
+        viewScope.handle(asyncService.verifyPendingTargets(handle), result -> {
+            refreshTargetList();
+            refreshStats();
+            String ratingMsg = result.achieved == 0 ? "" : (result.ratingChange >= 0 ?
+                String.format(" Rating +%.2f", result.ratingChange) :
+                String.format(" Rating %.2f (late penalty)", result.ratingChange));
+            String staleMsg = result.stale ? "\nCodeforces is degraded, so only previously synced submissions were checked." : "";
+            showAlert(Alert.AlertType.INFORMATION, "Check Complete", 
+                String.format("Checked %d problems, %d newly accepted.", result.checked, result.achieved) + ratingMsg + staleMsg);
+        }, error -> showCheckError("Failed to check targets", error));
+    }
+
+    private void showCheckError(String prefix, Throwable error) {
+        if (error instanceof CodeforcesUnavailableException) {
+            // Not a real failure; the check can simply be retried later
+            showAlert(Alert.AlertType.WARNING, "Codeforces Degraded",
+                error.getMessage() + "\nPlease try again in a little while.");
+            return;
+        }
+        showAlert(Alert.AlertType.ERROR, "Error", prefix + ": " + AsyncCodeforcesService.describeError(error));
     }
 
     private void deleteTarget(Target target) {
@@ -395,7 +467,7 @@ public class TargetController {
         
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            new Thread(() -> {
+            viewScope.handle(asyncService.submit("fetchRatings", 120, () -> {
                 List<Target> targets = TargetDAO.getAllTargets();
                 int updated = 0;
                 int total = 0;
@@ -404,30 +476,22 @@ public class TargetController {
                     if ("problem".equals(target.getType()) && target.getProblemLink() != null 
                         && target.getProblemLink().contains("codeforces.com")) {
                         total++;
+                        // Served from the local problemset index, so no per-target download
                         Integer rating = codeforcesService.fetchProblemRatingFromUrl(target.getProblemLink());
                         if (rating != null && rating > 0) {
                             if (TargetDAO.updateTargetRating(target.getId(), rating)) {
                                 updated++;
                             }
                         }
-                        // Small delay to avoid rate limiting
-                        try {
-                            Thread.sleep(100);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            break;
-                        }
                     }
                 }
-                
-                final int finalUpdated = updated;
-                final int finalTotal = total;
-                Platform.runLater(() -> {
-                    refreshTargetList();
-                    showAlert(Alert.AlertType.INFORMATION, "Success", 
-                        String.format("Updated %d/%d Codeforces problems with ratings", finalUpdated, finalTotal));
-                });
-            }).start();
+                return new int[]{updated, total};
+            }), counts -> {
+                refreshTargetList();
+                showAlert(Alert.AlertType.INFORMATION, "Success", 
+                    String.format("Updated %d/%d Codeforces problems with ratings", counts[0], counts[1]));
+            }, error -> showAlert(Alert.AlertType.ERROR, "Error",
+                "Failed to fetch ratings: " + AsyncCodeforcesService.describeError(error)));
         }
     }
 
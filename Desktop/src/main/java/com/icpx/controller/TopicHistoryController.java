@@ -4,21 +4,32 @@ import com.icpx.database.TargetDAO;
 import com.icpx.model.Target;
 import com.icpx.util.SceneManager;
 import com.icpx.view.DashboardView;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class TopicHistoryController {
 
+    private static final int SEARCH_LIMIT = 200;
+    private static final int PAGE_SIZE = 100;
+    // Rows from the end of the loaded list at which the next page is fetched
+    private static final int PREFETCH_ROWS = 20;
+
     @FXML
     private Button backButton;
 
+    @FXML
+    private TextField searchField;
+
     @FXML
     private Text totalLearnedText;
 
@@ -38,11 +49,16 @@ public class TopicHistoryController {
     private TableColumn<Target, String> dateColumn;
 
     private ObservableList<Target> learnedTopics;
+    // Where the next page starts; null once everything is loaded
+    private TargetDAO.PageCursor nextPage;
+    private boolean pageRequested;
 
     @FXML
     public void initialize() {
         setupTable();
+        setupPaging();
         loadLearnedTopics();
+        setupSearch();
     }
 
     private void setupTable() {
@@ -92,12 +108,62 @@ public class TopicHistoryController {
     }
 
     private void loadLearnedTopics() {
-        List<Target> topics = TargetDAO.getAchievedTopics();
-        learnedTopics = FXCollections.observableArrayList(topics);
+        TargetDAO.TargetPage page = TargetDAO.getAchievedPage("topic", null, PAGE_SIZE);
+        learnedTopics = FXCollections.observableArrayList(page.targets);
+        nextPage = page.next;
         topicsTable.setItems(learnedTopics);
 
         // Update statistics
-        totalLearnedText.setText(String.valueOf(topics.size()));
+        totalLearnedText.setText(String.valueOf(TargetDAO.getAchievedStats("topic").count));
+    }
+
+    /**
+     * Fetch the next page when a row near the end of the loaded list is shown
+     */
+    private void setupPaging() {
+        topicsTable.setRowFactory(table -> new TableRow<Target>() {
+            @Override
+            protected void updateItem(Target item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && !pageRequested && nextPage != null
+                        && getTableView().getItems() == learnedTopics && getIndex() >= learnedTopics.size() - PREFETCH_ROWS) {
+                    // The list must not change while the table lays out its rows
+                    pageRequested = true;
+                    Platform.runLater(TopicHistoryController.this::loadNextPage);
+                }
+            }
+        });
+    }
+
+    private void loadNextPage() {
+        pageRequested = false;
+        if (nextPage == null) {
+            return;
+        }
+        TargetDAO.TargetPage page = TargetDAO.getAchievedPage("topic", nextPage, PAGE_SIZE);
+        nextPage = page.next;
+        learnedTopics.addAll(page.targets);
+    }
+
+    /**
+     * Filter the table through the full-text index as the user types
+     */
+    private void setupSearch() {
+        // Wait for a pause in typing instead of querying on every key
+        PauseTransition debounce = new PauseTransition(Duration.millis(200));
+        debounce.setOnFinished(e -> applySearch(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> debounce.playFromStart());
+    }
+
+    private void applySearch(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            topicsTable.setItems(learnedTopics);
+            topicsTable.setPlaceholder(null);
+            return;
+        }
+        List<Target> results = TargetDAO.search(query, "topic", "achieved", SEARCH_LIMIT);
+        topicsTable.setItems(FXCollections.observableArrayList(results));
+        topicsTable.setPlaceholder(new Label("No matches for \"" + query.trim() + "\""));
     }
 
     @FXML
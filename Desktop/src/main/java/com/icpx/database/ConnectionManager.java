@@ -0,0 +1,444 @@
+package com.icpx.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Long-lived SQLite connections: one writer plus a small pool of read-only readers.
+ * Callers get lightweight handles whose close() returns the connection instead of closing it,
+ * and prepareStatement() answers from a per-connection statement cache.
+ *
+ * The writer is held by one thread at a time (reentrantly, so nested DAO calls share it).
+ * A thread that holds the writer also reads through it, so it sees its own uncommitted writes.
+ */
+class ConnectionManager {
+
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+    private static final long MMAP_SIZE_BYTES = 256L * 1024 * 1024;
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private final String url;
+    private final int maxReaders;
+
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private PooledConnection writer;
+
+    private final BlockingQueue<PooledConnection> idleReaders;
+    private final ThreadLocal<ReaderLease> currentReader = new ThreadLocal<>();
+    private int openReaders;
+    // Bumped by closeAll() so connections leased before it are closed on release
+    private volatile int generation;
+
+    ConnectionManager(String url, int maxReaders) {
+        this.url = url;
+        this.maxReaders = maxReaders;
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+    }
+
+    /**
+     * Lease the writer connection, blocking while another thread holds it
+     */
+    Connection getWriter() throws SQLException {
+        try {
+            if (!writerLock.tryLock(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLException("Timed out waiting for the database writer connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer connection", e);
+        }
+
+        try {
+            if (writer == null || writer.generation != generation) {
+                writer = open(false);
+            }
+            return writer.newHandle(this::releaseWriter);
+        } catch (SQLException | RuntimeException e) {
+            writerLock.unlock();
+            throw e;
+        }
+    }
+
+    private void releaseWriter(PooledConnection connection) {
+        try {
+            if (writerLock.getHoldCount() == 1) {
+                connection.reset();
+                if (connection.generation != generation) {
+                    connection.closeQuietly();
+                }
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Lease a read-only connection. Returns the writer if the current thread already holds it.
+     */
+    Connection getReader() throws SQLException {
+        if (writerLock.isHeldByCurrentThread()) {
+            return getWriter();
+        }
+
+        ReaderLease lease = currentReader.get();
+        if (lease == null) {
+            lease = new ReaderLease(takeReader());
+            currentReader.set(lease);
+        }
+        lease.depth++;
+        return lease.connection.newHandle(this::releaseReader);
+    }
+
+    private PooledConnection takeReader() throws SQLException {
+        PooledConnection reader = idleReaders.poll();
+        if (reader != null) {
+            return reader;
+        }
+        synchronized (this) {
+            if (openReaders < maxReaders) {
+                PooledConnection opened = open(true);
+                openReaders++;
+                return opened;
+            }
+        }
+        try {
+            reader = idleReaders.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database reader connection", e);
+        }
+        if (reader == null) {
+            throw new SQLException("Timed out waiting for a database reader connection");
+        }
+        return reader;
+    }
+
+    private void releaseReader(PooledConnection connection) {
+        ReaderLease lease = currentReader.get();
+        if (lease == null || --lease.depth > 0) {
+            return;
+        }
+        currentReader.remove();
+        connection.reset();
+        if (connection.generation != generation || !idleReaders.offer(connection)) {
+            connection.closeQuietly();
+            synchronized (this) {
+                openReaders--;
+            }
+        }
+    }
+
+    /**
+     * Close every idle connection; leased ones are closed when released.
+     * Later calls open fresh connections.
+     */
+    void closeAll() {
+        generation++;
+        PooledConnection reader;
+        while ((reader = idleReaders.poll()) != null) {
+            reader.closeQuietly();
+            synchronized (this) {
+                openReaders--;
+            }
+        }
+        if (writerLock.tryLock()) {
+            try {
+                if (writer != null && writerLock.getHoldCount() == 1) {
+                    writer.optimize();
+                    writer.closeQuietly();
+                    writer = null;
+                }
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+
+    private PooledConnection open(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            if (!readOnly) {
+                // WAL lets readers run alongside the writer; the mode is stored in the file
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
+            // Durable at checkpoints only, which is safe in WAL mode and much cheaper per commit
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA mmap_size = " + MMAP_SIZE_BYTES);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return new PooledConnection(connection, generation);
+    }
+
+    private interface Releaser {
+        void release(PooledConnection connection);
+    }
+
+    private static class ReaderLease {
+        final PooledConnection connection;
+        int depth;
+
+        ReaderLease(PooledConnection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * A physical connection and its statement cache
+     */
+    private static class PooledConnection {
+        final Connection connection;
+        final int generation;
+        private final Map<String, CachedStatement> statements =
+            new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE && !eldest.getValue().inUse) {
+                        closeQuietly(eldest.getValue().statement);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+        PooledConnection(Connection connection, int generation) {
+            this.connection = connection;
+            this.generation = generation;
+        }
+
+        Connection newHandle(Releaser releaser) {
+            return (Connection) Proxy.newProxyInstance(ConnectionManager.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandle(this, releaser));
+        }
+
+        /**
+         * Get a cached statement, or a one-off one if the cached statement is already in use
+         * (e.g. the same query prepared again by a nested DAO call)
+         */
+        PreparedStatement prepare(String sql, int autoGeneratedKeys, boolean explicitKeys) throws SQLException {
+            String key = explicitKeys ? autoGeneratedKeys + "#" + sql : sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse && cached.statement.isClosed()) {
+                // The driver finalizes a statement when its execution fails
+                statements.remove(key);
+                cached = null;
+            }
+            if (cached == null) {
+                cached = new CachedStatement(explicitKeys
+                    ? connection.prepareStatement(sql, autoGeneratedKeys)
+                    : connection.prepareStatement(sql));
+                statements.put(key, cached);
+            } else if (cached.inUse) {
+                PreparedStatement oneOff = explicitKeys
+                    ? connection.prepareStatement(sql, autoGeneratedKeys)
+                    : connection.prepareStatement(sql);
+                return StatementHandle.wrap(oneOff, null);
+            }
+            cached.inUse = true;
+            return StatementHandle.wrap(cached.statement, cached);
+        }
+
+        /**
+         * Leave the connection clean for the next lease
+         */
+        void reset() {
+            try {
+                if (!connection.getAutoCommit()) {
+                    // A caller forgot to commit or bailed out mid-transaction
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting pooled connection: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Let SQLite refresh planner statistics where they are missing or stale
+         */
+        void optimize() {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA optimize");
+            } catch (SQLException e) {
+                System.err.println("Error optimizing database: " + e.getMessage());
+            }
+        }
+
+        void closeQuietly() {
+            for (CachedStatement cached : statements.values()) {
+                closeQuietly(cached.statement);
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing database connection: " + e.getMessage());
+            }
+        }
+
+        private static void closeQuietly(Statement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Already unusable
+            }
+        }
+    }
+
+    private static class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Connection handed to callers; close() releases the lease
+     */
+    private static class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Releaser releaser;
+        private boolean closed;
+
+        ConnectionHandle(PooledConnection pooled, Releaser releaser) {
+            this.pooled = pooled;
+            this.releaser = releaser;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        releaser.release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + pooled.connection;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if (name.equals("prepareStatement") && args.length == 1) {
+                return pooled.prepare((String) args[0], Statement.NO_GENERATED_KEYS, false);
+            }
+            if (name.equals("prepareStatement") && args.length == 2 && args[1] instanceof Integer) {
+                return pooled.prepare((String) args[0], (Integer) args[1], true);
+            }
+            return invokeTarget(pooled.connection, method, args);
+        }
+    }
+
+    /**
+     * Statement handed to callers; close() returns a cached statement to the cache
+     * after closing any result sets it produced
+     */
+    private static class StatementHandle implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final CachedStatement cached;
+        private final List<ResultSet> resultSets = new ArrayList<>();
+        private boolean closed;
+
+        private StatementHandle(PreparedStatement statement, CachedStatement cached) {
+            this.statement = statement;
+            this.cached = cached;
+        }
+
+        static PreparedStatement wrap(PreparedStatement statement, CachedStatement cached) {
+            return (PreparedStatement) Proxy.newProxyInstance(ConnectionManager.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new StatementHandle(statement, cached));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result = invokeTarget(statement, method, args);
+            if (result instanceof ResultSet) {
+                resultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void release() throws SQLException {
+            // DAOs do not always close their result sets; an open one would pin a read snapshot
+            for (Iterator<ResultSet> it = resultSets.iterator(); it.hasNext(); ) {
+                it.next().close();
+                it.remove();
+            }
+            if (cached == null) {
+                statement.close();
+                return;
+            }
+            try {
+                if (!statement.isClosed()) {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                }
+            } finally {
+                cached.inUse = false;
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
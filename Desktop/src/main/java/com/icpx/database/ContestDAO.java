@@ -7,49 +7,75 @@ import java.util.List;
 
 public class ContestDAO {
 
-    public static boolean saveContests(List<Contest> contests) {
-        String sql = "INSERT OR REPLACE INTO contests (id, name, type, phase, duration_seconds, start_time_seconds) VALUES (?, ?, ?, ?, ?, ?)";
-        
+    // Rows that did not change are left alone; a new start time re-arms the reminder
+    private static final String UPSERT_SQL = "INSERT INTO contests (id, name, type, phase, duration_seconds, start_time_seconds) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(id) DO UPDATE SET name = excluded.name, type = excluded.type, phase = excluded.phase, " +
+            "duration_seconds = excluded.duration_seconds, start_time_seconds = excluded.start_time_seconds, " +
+            "reminder_sent = CASE WHEN start_time_seconds = excluded.start_time_seconds THEN reminder_sent ELSE 0 END " +
+            "WHERE name IS NOT excluded.name OR type IS NOT excluded.type OR phase IS NOT excluded.phase " +
+            "OR duration_seconds IS NOT excluded.duration_seconds OR start_time_seconds IS NOT excluded.start_time_seconds";
+    // Served by the partial index idx_contests_reminder_due
+    private static final String SELECT_DUE_FOR_REMINDER_SQL = "SELECT * FROM contests " +
+            "WHERE phase = 'BEFORE' AND reminder_sent = 0 AND start_time_seconds > ? AND start_time_seconds <= ? " +
+            "ORDER BY start_time_seconds";
+    private static final String CLAIM_REMINDER_SQL = "UPDATE contests SET reminder_sent = 1 WHERE id = ? AND reminder_sent = 0";
+    // Saved rows are never moved to FINISHED (finished contests are not saved), so go by end time
+    private static final String PRUNE_FINISHED_SQL = "DELETE FROM contests WHERE start_time_seconds + duration_seconds < ?";
+
+    /**
+     * Save the upcoming and running contests from a Codeforces contest list.
+     * Finished contests (most of the list) are left out: reminders never need them, and
+     * saving them would re-insert every day what pruneFinishedContests deletes.
+     * @return Number of contests added or changed, or -1 on error
+     */
+    public static int saveContests(List<Contest> contests) {
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
             
             conn.setAutoCommit(false);
-            for (Contest contest : contests) {
-                pstmt.setInt(1, contest.getId());
-                pstmt.setString(2, contest.getName());
-                pstmt.setString(3, contest.getType());
-                pstmt.setString(4, contest.getPhase());
-                pstmt.setLong(5, contest.getDurationSeconds());
-                pstmt.setLong(6, contest.getStartTimeSeconds());
-                pstmt.addBatch();
+            try {
+                for (Contest contest : contests) {
+                    if (!"BEFORE".equals(contest.getPhase()) && !"CODING".equals(contest.getPhase())) {
+                        continue;
+                    }
+                    pstmt.setInt(1, contest.getId());
+                    pstmt.setString(2, contest.getName());
+                    pstmt.setString(3, contest.getType());
+                    pstmt.setString(4, contest.getPhase());
+                    pstmt.setLong(5, contest.getDurationSeconds());
+                    pstmt.setLong(6, contest.getStartTimeSeconds());
+                    pstmt.addBatch();
+                }
+                int changed = 0;
+                for (int count : pstmt.executeBatch()) {
+                    changed += Math.max(count, 0);
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            pstmt.executeBatch();
-            conn.commit();
-            return true;
         } catch (SQLException e) {
             System.err.println("Error saving contests: " + e.getMessage());
             e.printStackTrace();
         }
-        return false;
+        return -1;
     }
 
     public static List<Contest> getUpcomingContests() {
         List<Contest> contests = new ArrayList<>();
         String sql = "SELECT * FROM contests WHERE phase = 'BEFORE' ORDER BY start_time_seconds ASC";
         
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                Contest contest = new Contest();
-                contest.setId(rs.getInt("id"));
-                contest.setName(rs.getString("name"));
-                contest.setType(rs.getString("type"));
-                contest.setPhase(rs.getString("phase"));
-                contest.setDurationSeconds(rs.getLong("duration_seconds"));
-                contest.setStartTimeSeconds(rs.getLong("start_time_seconds"));
-                contests.add(contest);
+                contests.add(extractContest(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting upcoming contests: " + e.getMessage());
@@ -57,29 +83,69 @@ public class ContestDAO {
         return contests;
     }
 
-    public static void markReminderSent(int contestId) {
-        String sql = "UPDATE contests SET reminder_sent = 1 WHERE id = ?";
+    /**
+     * Get contests without a reminder yet that start within the window
+     * @param nowSeconds Current epoch second
+     * @param windowSeconds How far ahead to look
+     */
+    public static List<Contest> getContestsDueForReminder(long nowSeconds, long windowSeconds) {
+        List<Contest> contests = new ArrayList<>();
+        
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_DUE_FOR_REMINDER_SQL)) {
+            
+            pstmt.setLong(1, nowSeconds);
+            pstmt.setLong(2, nowSeconds + windowSeconds);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    contests.add(extractContest(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting contests due for reminder: " + e.getMessage());
+        }
+        return contests;
+    }
+
+    /**
+     * Mark a contest's reminder as sent
+     * @return true if this call marked it, false if it was already sent (or on error)
+     */
+    public static boolean markReminderSent(int contestId) {
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(CLAIM_REMINDER_SQL)) {
             pstmt.setInt(1, contestId);
-            pstmt.executeUpdate();
+            return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error marking reminder sent: " + e.getMessage());
         }
+        return false;
     }
 
-    public static boolean hasReminderBeenSent(int contestId) {
-        String sql = "SELECT reminder_sent FROM contests WHERE id = ?";
+    /**
+     * Delete contests that ended more than the given number of days ago
+     * @return Number of contests deleted
+     */
+    public static int pruneFinishedContests(int olderThanDays) {
+        long cutoff = java.time.Instant.now().minus(java.time.Duration.ofDays(olderThanDays)).getEpochSecond();
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, contestId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("reminder_sent") == 1;
-            }
+             PreparedStatement pstmt = conn.prepareStatement(PRUNE_FINISHED_SQL)) {
+            pstmt.setLong(1, cutoff);
+            return pstmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Error checking reminder status: " + e.getMessage());
+            System.err.println("Error pruning finished contests: " + e.getMessage());
         }
-        return false;
+        return 0;
+    }
+
+    private static Contest extractContest(ResultSet rs) throws SQLException {
+        Contest contest = new Contest();
+        contest.setId(rs.getInt("id"));
+        contest.setName(rs.getString("name"));
+        contest.setType(rs.getString("type"));
+        contest.setPhase(rs.getString("phase"));
+        contest.setDurationSeconds(rs.getLong("duration_seconds"));
+        contest.setStartTimeSeconds(rs.getLong("start_time_seconds"));
+        return contest;
     }
 }
@@ -1,74 +1,61 @@
 package com.icpx.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * Database helper class for managing SQLite connection and initialization
  */
 public class DatabaseHelper {
-    private static final String DB_URL = "jdbc:sqlite:icpx.db";
-    private static boolean isInitialized = false;
+    // Override with -Dicpx.db.path=/some/other.db (e.g. for tools and load tests)
+    private static final String DB_URL = "jdbc:sqlite:" + System.getProperty("icpx.db.path", "icpx.db");
+    private static final int READER_POOL_SIZE = 3;
+
+    private static final ConnectionManager connections = new ConnectionManager(DB_URL, READER_POOL_SIZE);
+    private static volatile boolean isInitialized = false;
 
     /**
-     * Get a new database connection.
-     * Callers are responsible for closing this connection.
+     * Lease the writer connection. Use for anything that modifies the database.
+     * Callers must close it (try-with-resources), which returns it to the manager.
      */
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(DB_URL);
-        
+        Connection conn = connections.getWriter();
+
         if (!isInitialized) {
-            initializeDatabase(conn);
+            try {
+                initializeDatabase(conn);
+            } catch (SQLException | RuntimeException e) {
+                conn.close();
+                throw e;
+            }
             isInitialized = true;
         }
-        
+
         return conn;
     }
 
+    /**
+     * Lease a read-only connection from the reader pool. Readers run alongside the writer (WAL).
+     * Callers must close it (try-with-resources), which returns it to the pool.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (!isInitialized) {
+            getConnection().close();
+        }
+        return connections.getReader();
+    }
+
     private static synchronized void initializeDatabase(Connection conn) throws SQLException {
         if (isInitialized) return;
 
-        String createUsersTable = "CREATE TABLE IF NOT EXISTS users (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "username TEXT NOT NULL UNIQUE, " +
-                "password_hash TEXT NOT NULL, " +
-                "startup_password_enabled INTEGER DEFAULT 0, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
-
-        String createTargetsTable = "CREATE TABLE IF NOT EXISTS targets (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "type TEXT NOT NULL, " +
-                "name TEXT NOT NULL, " +
-                "problem_link TEXT, " +
-                "topic_name TEXT, " +
-                "website_url TEXT, " +
-                "status TEXT DEFAULT 'pending', " +
-                "rating INTEGER, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
-
-        String createSettingsTable = "CREATE TABLE IF NOT EXISTS settings (" +
-                "key TEXT PRIMARY KEY, " +
-                "value TEXT" +
-                ")";
-
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createUsersTable);
-            stmt.execute(createTargetsTable);
-            stmt.execute(createSettingsTable);
-        }
-        
-        // Run migrations
+        // A single PRAGMA user_version read once the schema is current
         DatabaseMigration.runMigrations(conn);
     }
 
     /**
-     * Close database connection (No-op in new design as connections are managed by caller)
+     * Close the pooled connections (on shutdown)
      */
     public static void closeConnection() {
-        // No-op
+        connections.closeAll();
     }
 }
@@ -1,169 +1,346 @@
 package com.icpx.database;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
- * Database migration utility to add rating column to existing databases
+ * Versioned schema migrations.
+ * The schema version lives in PRAGMA user_version. On startup only the steps newer than it run,
+ * all in one transaction, so an up-to-date database costs a single pragma read.
+ *
+ * To change the schema, append a step to MIGRATIONS. Never edit a step that has shipped.
  */
 public class DatabaseMigration {
 
     /**
-     * Add rating column to targets table if it doesn't exist
+     * One schema step, applied inside the migration transaction
+     */
+    private interface Migration {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    // Step i brings the schema to version i + 1
+    private static final Migration[] MIGRATIONS = {
+        DatabaseMigration::createBaselineSchema,
+        DatabaseMigration::createTargetQueryIndexes,
+        DatabaseMigration::createRatingLedger,
+        DatabaseMigration::createDailyActivity,
+        DatabaseMigration::createTargetSearchIndex,
+        DatabaseMigration::createContestReminderIndex,
+        DatabaseMigration::addTargetVersions,
+        DatabaseMigration::createSyncState
+    };
+
+    public static final int LATEST_VERSION = MIGRATIONS.length;
+
+    /**
+     * Bring the schema up to LATEST_VERSION
      * @param conn Active database connection (will not be closed by this method)
      */
-    public static void addRatingColumn(Connection conn) {
-        String sql = "ALTER TABLE targets ADD COLUMN rating INTEGER";
-        
-        try (Statement stmt = conn.createStatement()) {
-            // Check if column already exists
-            try {
-                stmt.execute(sql);
-                System.out.println("Successfully added 'rating' column to targets table");
-            } catch (SQLException e) {
-                // Column might already exist, which is fine
-                if (e.getMessage().contains("duplicate column name")) {
-                    System.out.println("Column 'rating' already exists in targets table");
-                } else {
-                    throw e;
-                }
+    public static void runMigrations(Connection conn) throws SQLException {
+        int current = getSchemaVersion(conn);
+        if (current >= LATEST_VERSION) {
+            if (current > LATEST_VERSION) {
+                System.err.println("Database schema version " + current + " is newer than this app (" + LATEST_VERSION + ")");
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int version = current + 1; version <= LATEST_VERSION; version++) {
+                MIGRATIONS[version - 1].apply(conn);
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA user_version = " + LATEST_VERSION);
             }
-        } catch (SQLException e) {
-            System.err.println("Error adding rating column: " + e.getMessage());
-            e.printStackTrace();
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
+
+        System.out.printf("Migrated database schema from version %d to %d in %d ms%n",
+            current, LATEST_VERSION, (System.nanoTime() - start) / 1_000_000);
     }
 
     /**
-     * Add archived column to targets table if it doesn't exist
-     * @param conn Active database connection (will not be closed by this method)
+     * Read the schema version (0 for a new database or one created before versioning)
+     */
+    public static int getSchemaVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Version 1: the full schema as of the switch to versioned migrations.
+     * Also upgrades databases from before versioning, which may have any subset of the
+     * old startup migrations applied, so every step here checks before it changes anything.
      */
-    public static void addArchivedColumn(Connection conn) {
-        String sql = "ALTER TABLE targets ADD COLUMN archived INTEGER DEFAULT 0";
-        
+    private static void createBaselineSchema(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            // Check if column already exists
+            stmt.execute("CREATE TABLE IF NOT EXISTS users (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "username TEXT NOT NULL UNIQUE, " +
+                    "password_hash TEXT NOT NULL, " +
+                    "startup_password_enabled INTEGER DEFAULT 0, " +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS targets (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "type TEXT NOT NULL, " +
+                    "name TEXT NOT NULL, " +
+                    "problem_link TEXT, " +
+                    "topic_name TEXT, " +
+                    "website_url TEXT, " +
+                    "status TEXT DEFAULT 'pending', " +
+                    "rating INTEGER, " +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            addColumnIfMissing(conn, "targets", "rating", "INTEGER");
+            addColumnIfMissing(conn, "targets", "archived", "INTEGER DEFAULT 0");
+            addColumnIfMissing(conn, "targets", "deadline", "TIMESTAMP");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS settings (" +
+                    "key TEXT PRIMARY KEY, " +
+                    "value TEXT" +
+                    ")");
+            stmt.execute("INSERT OR IGNORE INTO settings (key, value) VALUES ('user_rating', '0.0')");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS contests (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "name TEXT NOT NULL, " +
+                    "type TEXT, " +
+                    "phase TEXT, " +
+                    "duration_seconds INTEGER, " +
+                    "start_time_seconds INTEGER, " +
+                    "reminder_sent INTEGER DEFAULT 0)");
+
+            // One-way friend relationships
+            stmt.execute("CREATE TABLE IF NOT EXISTS friends (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "user_email TEXT NOT NULL, " +
+                    "friend_email TEXT NOT NULL, " +
+                    "added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "UNIQUE(user_email, friend_email))");
+
+            // Local Codeforces problemset index
+            stmt.execute("CREATE TABLE IF NOT EXISTS problemset (" +
+                    "contest_id INTEGER NOT NULL, " +
+                    "problem_index TEXT NOT NULL, " +
+                    "name TEXT, " +
+                    "rating INTEGER, " +
+                    "PRIMARY KEY (contest_id, problem_index))");
+
+            // Local copy of the user's Codeforces submissions
+            stmt.execute("CREATE TABLE IF NOT EXISTS submissions (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "handle TEXT NOT NULL, " +
+                    "contest_id INTEGER, " +
+                    "problem_index TEXT, " +
+                    "verdict TEXT, " +
+                    "creation_time_seconds INTEGER)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_submissions_problem " +
+                    "ON submissions(handle, contest_id, problem_index, verdict)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_submissions_verdict " +
+                    "ON submissions(handle, verdict, creation_time_seconds)");
+
+            // Prevents duplicate problem targets
             try {
-                stmt.execute(sql);
-                System.out.println("Successfully added 'archived' column to targets table");
+                stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_targets_problem_link " +
+                        "ON targets(problem_link) WHERE problem_link IS NOT NULL AND problem_link != ''");
             } catch (SQLException e) {
-                // Column might already exist, which is fine
-                if (e.getMessage().contains("duplicate column name")) {
-                    System.out.println("Column 'archived' already exists in targets table");
-                } else {
+                // Older databases may already hold duplicates; only this statement is rolled back
+                if (!e.getMessage().contains("UNIQUE constraint failed")) {
                     throw e;
                 }
+                System.err.println("Skipping unique index on problem_link: existing targets contain duplicates");
             }
-        } catch (SQLException e) {
-            System.err.println("Error adding archived column: " + e.getMessage());
-            // Don't print stack trace for common migration errors to keep logs clean
         }
     }
 
     /**
-     * Create contests table if it doesn't exist
-     * @param conn Active database connection
+     * Version 2: indexes matched to the TargetDAO queries (checked by QueryPlanAudit)
      */
-    public static void createContestsTable(Connection conn) {
-        String sql = "CREATE TABLE IF NOT EXISTS contests (" +
-                     "id INTEGER PRIMARY KEY, " +
-                     "name TEXT NOT NULL, " +
-                     "type TEXT, " +
-                     "phase TEXT, " +
-                     "duration_seconds INTEGER, " +
-                     "start_time_seconds INTEGER, " +
-                     "reminder_sent INTEGER DEFAULT 0)";
-        
+    private static void createTargetQueryIndexes(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Verified 'contests' table exists");
-        } catch (SQLException e) {
-            System.err.println("Error creating contests table: " + e.getMessage());
-            e.printStackTrace();
+            // Active list and recent targets: archived = 0 ORDER BY created_at DESC
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_targets_archived_created ON targets(archived, created_at)");
+            // Unsolved / achieved lists and the heatmap: type + status, ordered by creation
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_targets_type_status_created ON targets(type, status, created_at)");
+            // Counts by status, and solved today via DATE(created_at)
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_targets_status_created_date ON targets(status, DATE(created_at))");
+            // Added today
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_targets_created_date ON targets(DATE(created_at))");
+            // Plain lookups by link; the unique index is partial, so "problem_link = ?" alone cannot use it
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_targets_problem_link_lookup ON targets(problem_link)");
         }
     }
 
     /**
-     * Create index on problem_link to prevent duplicate problems
-     * @param conn Active database connection
+     * Version 3: append-only ledger of rating changes.
+     * settings.user_rating stays as the running total and is updated in the same transaction as each event.
      */
-    public static void createProblemLinkIndex(Connection conn) {
-        String sql = "CREATE UNIQUE INDEX IF NOT EXISTS idx_targets_problem_link " +
-                     "ON targets(problem_link) WHERE problem_link IS NOT NULL AND problem_link != ''";
-        
+    private static void createRatingLedger(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Created unique index on problem_link to prevent duplicates");
-        } catch (SQLException e) {
-            // Index might already exist or there might be duplicates in the data
-            if (e.getMessage().contains("UNIQUE constraint failed") || e.getMessage().contains("already exists")) {
-                System.out.println("Index on problem_link already exists or duplicates found");
-            } else {
-                System.err.println("Error creating problem_link index: " + e.getMessage());
-            }
+            stmt.execute("CREATE TABLE IF NOT EXISTS rating_events (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "delta REAL NOT NULL, " +
+                    "rating REAL NOT NULL, " +
+                    "reason TEXT, " +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            // Start the history at the rating the user already has
+            stmt.execute("INSERT INTO rating_events (delta, rating, reason) " +
+                    "SELECT CAST(value AS REAL), CAST(value AS REAL), 'baseline' FROM settings WHERE key = 'user_rating'");
         }
     }
 
     /**
-     * Run all migrations
-     * @param conn Active database connection (will not be closed by this method)
+     * Version 4: per-day target counts, kept current by triggers on targets.
+     * A target counts towards the day it was created (as the old DATE(created_at) queries did);
+     * solved and topics count achieved problems and achieved topics.
      */
-    public static void runMigrations(Connection conn) {
-        System.out.println("Running database migrations...");
-        addRatingColumn(conn);
-        addArchivedColumn(conn);
-        createContestsTable(conn);
-        createProblemLinkIndex(conn);
-        addDeadlineColumn(conn);
-        createFriendsTable(conn);
-        addUserRatingToSettings(conn);
-        System.out.println("Database migrations completed");
+    private static void createDailyActivity(Connection conn) throws SQLException {
+        String problemSolved = "(%1$s.type = 'problem' AND %1$s.status = 'achieved')";
+        String topicSolved = "(%1$s.type = 'topic' AND %1$s.status = 'achieved')";
+        String addNew = "INSERT INTO daily_activity (date, added, solved, topics) " +
+                "SELECT DATE(NEW.created_at), 1, " + String.format(problemSolved, "NEW") + ", " + String.format(topicSolved, "NEW") + " " +
+                "WHERE DATE(NEW.created_at) IS NOT NULL " +
+                "ON CONFLICT(date) DO UPDATE SET added = added + 1, solved = solved + excluded.solved, topics = topics + excluded.topics; ";
+        String removeOld = "UPDATE daily_activity SET added = added - 1, " +
+                "solved = solved - " + String.format(problemSolved, "OLD") + ", " +
+                "topics = topics - " + String.format(topicSolved, "OLD") + " " +
+                "WHERE date = DATE(OLD.created_at); " +
+                "DELETE FROM daily_activity WHERE date = DATE(OLD.created_at) AND added <= 0; ";
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS daily_activity (" +
+                    "date TEXT PRIMARY KEY, " +
+                    "added INTEGER NOT NULL DEFAULT 0, " +
+                    "solved INTEGER NOT NULL DEFAULT 0, " +
+                    "topics INTEGER NOT NULL DEFAULT 0) WITHOUT ROWID");
+
+            stmt.execute("INSERT OR REPLACE INTO daily_activity (date, added, solved, topics) " +
+                    "SELECT DATE(created_at), COUNT(*), " +
+                    "SUM(type = 'problem' AND status = 'achieved'), SUM(type = 'topic' AND status = 'achieved') " +
+                    "FROM targets WHERE DATE(created_at) IS NOT NULL GROUP BY DATE(created_at)");
+
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_activity_insert AFTER INSERT ON targets " +
+                    "BEGIN " + addNew + "END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_activity_delete AFTER DELETE ON targets " +
+                    "BEGIN " + removeOld + "END");
+            // Only changes that move a target between days or counters
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_activity_update AFTER UPDATE OF type, status, created_at ON targets " +
+                    "WHEN OLD.type IS NOT NEW.type OR OLD.status IS NOT NEW.status " +
+                    "OR DATE(OLD.created_at) IS NOT DATE(NEW.created_at) " +
+                    "BEGIN " + removeOld + addNew + "END");
+
+            // Added today now reads daily_activity
+            stmt.execute("DROP INDEX IF EXISTS idx_targets_created_date");
+        }
     }
-    
+
     /**
-     * Add deadline column to targets table
+     * Version 5: FTS5 index over target names, topics and URLs for TargetDAO.search.
+     * It stores no text of its own (content=targets), so triggers feed it every change.
      */
-    public static void addDeadlineColumn(Connection conn) {
-        String sql = "ALTER TABLE targets ADD COLUMN deadline TIMESTAMP";
+    private static void createTargetSearchIndex(Connection conn) throws SQLException {
+        String insertNew = "INSERT INTO targets_fts (rowid, name, topic_name, website_url) " +
+                "VALUES (NEW.id, NEW.name, NEW.topic_name, NEW.website_url); ";
+        String deleteOld = "INSERT INTO targets_fts (targets_fts, rowid, name, topic_name, website_url) " +
+                "VALUES ('delete', OLD.id, OLD.name, OLD.topic_name, OLD.website_url); ";
+
         try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Successfully added 'deadline' column to targets table");
-        } catch (SQLException e) {
-            if (e.getMessage().contains("duplicate column name")) {
-                System.out.println("Column 'deadline' already exists in targets table");
-            }
+            // Prefix indexes keep "dyn*"-style queries from walking the whole term list
+            stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS targets_fts USING fts5(" +
+                    "name, topic_name, website_url, " +
+                    "content='targets', content_rowid='id', " +
+                    "tokenize='unicode61 remove_diacritics 2', prefix='2 3')");
+            // Rank name matches above topic matches above URL matches
+            stmt.execute("INSERT INTO targets_fts (targets_fts, rank) VALUES ('rank', 'bm25(10.0, 5.0, 1.0)')");
+            stmt.execute("INSERT INTO targets_fts (targets_fts) VALUES ('rebuild')");
+
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_fts_insert AFTER INSERT ON targets " +
+                    "BEGIN " + insertNew + "END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_fts_delete AFTER DELETE ON targets " +
+                    "BEGIN " + deleteOld + "END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_fts_update AFTER UPDATE OF name, topic_name, website_url ON targets " +
+                    "BEGIN " + deleteOld + insertNew + "END");
         }
     }
-    
+
     /**
-     * Create friends table for one-way friend relationships
+     * Version 6: index holding only contests that still need a reminder, ordered by start time
      */
-    public static void createFriendsTable(Connection conn) {
-        String sql = "CREATE TABLE IF NOT EXISTS friends (" +
-                     "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                     "user_email TEXT NOT NULL, " +
-                     "friend_email TEXT NOT NULL, " +
-                     "added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                     "UNIQUE(user_email, friend_email))";
+    private static void createContestReminderIndex(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Verified 'friends' table exists");
-        } catch (SQLException e) {
-            System.err.println("Error creating friends table: " + e.getMessage());
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_contests_reminder_due ON contests(start_time_seconds) " +
+                    "WHERE phase = 'BEFORE' AND reminder_sent = 0");
         }
     }
-    
+
     /**
-     * Add user_rating to settings table
+     * Version 7: change stamps for delta sync.
+     * Every local insert or edit gives the row the next version (higher than any other row),
+     * so uploads only need rows above the last uploaded version. Rows written by a download
+     * set updated_at themselves, which the triggers leave alone, so they are not uploaded back.
      */
-    public static void addUserRatingToSettings(Connection conn) {
-        String sql = "INSERT OR IGNORE INTO settings (key, value) VALUES ('user_rating', '0.0')";
+    private static void addTargetVersions(Connection conn) throws SQLException {
+        String nowMillis = "CAST(unixepoch('subsec') * 1000 AS INTEGER)";
+        String stamp = "UPDATE targets SET version = (SELECT COALESCE(MAX(version), 0) + 1 FROM targets), " +
+                "updated_at = " + nowMillis + " WHERE id = NEW.id; ";
+
+        addColumnIfMissing(conn, "targets", "version", "INTEGER");
+        addColumnIfMissing(conn, "targets", "updated_at", "INTEGER");
+        try (Statement stmt = conn.createStatement()) {
+            // Existing rows all count as changed, so the first delta upload sends everything
+            stmt.execute("UPDATE targets SET version = id, updated_at = " + nowMillis);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_targets_version ON targets(version)");
+
+            // Downloaded rows are inserted with a version of 0
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_version_insert AFTER INSERT ON targets " +
+                    "WHEN NEW.version IS NULL BEGIN " + stamp + "END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_targets_version_update AFTER UPDATE OF " +
+                    "type, name, problem_link, topic_name, website_url, status, rating, archived, deadline ON targets " +
+                    "WHEN NEW.updated_at IS OLD.updated_at BEGIN " + stamp + "END");
+        }
+    }
+
+    /**
+     * Version 8: content hash of every document as last uploaded, per cloud collection path,
+     * so uploads can skip documents the cloud already has
+     */
+    private static void createSyncState(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Initialized user_rating setting");
-        } catch (SQLException e) {
-            System.err.println("Error adding user_rating: " + e.getMessage());
+            stmt.execute("CREATE TABLE IF NOT EXISTS sync_state (" +
+                    "collection TEXT NOT NULL, " +
+                    "doc_id TEXT NOT NULL, " +
+                    "content_hash INTEGER NOT NULL, " +
+                    "synced_at INTEGER NOT NULL, " +
+                    "PRIMARY KEY (collection, doc_id)) WITHOUT ROWID");
+        }
+    }
+
+    private static void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("name"))) {
+                        return;
+                    }
+                }
+            }
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
         }
     }
 }
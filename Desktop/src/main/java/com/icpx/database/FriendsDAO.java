@@ -85,7 +85,7 @@ public class FriendsDAO {
         
         String sql = "SELECT friend_email FROM friends WHERE user_email = ? ORDER BY added_at DESC";
         
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, userEmail.trim().toLowerCase());
@@ -110,7 +110,7 @@ public class FriendsDAO {
     public static boolean isFriend(String userEmail, String friendEmail) {
         String sql = "SELECT 1 FROM friends WHERE user_email = ? AND friend_email = ?";
         
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, userEmail.trim().toLowerCase());
@@ -133,7 +133,7 @@ public class FriendsDAO {
     public static int getFriendCount(String userEmail) {
         String sql = "SELECT COUNT(*) FROM friends WHERE user_email = ?";
         
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, userEmail.trim().toLowerCase());
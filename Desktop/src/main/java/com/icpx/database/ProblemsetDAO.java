@@ -0,0 +1,79 @@
+package com.icpx.database;
+
+import com.icpx.service.CodeforcesService.ProblemsetProblem;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for the locally stored Codeforces problemset
+ */
+public class ProblemsetDAO {
+
+    /**
+     * Replace the stored problemset with a freshly downloaded one
+     */
+    public static boolean replaceProblemset(List<ProblemsetProblem> problems) {
+        String deleteSql = "DELETE FROM problemset";
+        String insertSql = "INSERT OR REPLACE INTO problemset (contest_id, problem_index, name, rating) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                stmt.execute(deleteSql);
+
+                for (ProblemsetProblem problem : problems) {
+                    pstmt.setInt(1, problem.contestId);
+                    pstmt.setString(2, problem.index);
+                    pstmt.setString(3, problem.name);
+                    if (problem.rating != null) {
+                        pstmt.setInt(4, problem.rating);
+                    } else {
+                        pstmt.setNull(4, Types.INTEGER);
+                    }
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving problemset: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Load the whole stored problemset
+     */
+    public static List<ProblemsetProblem> getAllProblems() {
+        List<ProblemsetProblem> problems = new ArrayList<>();
+        String sql = "SELECT contest_id, problem_index, name, rating FROM problemset";
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                int rating = rs.getInt("rating");
+                Integer ratingValue = rs.wasNull() ? null : rating;
+                problems.add(new ProblemsetProblem(
+                    rs.getInt("contest_id"),
+                    rs.getString("problem_index"),
+                    rs.getString("name"),
+                    ratingValue
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading problemset: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return problems;
+    }
+}
@@ -1,38 +1,116 @@
 package com.icpx.database;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 /**
- * Data Access Object for Settings operations
+ * Data Access Object for Settings operations.
+ * The settings table is small, so it is loaded once into memory; reads are served from
+ * the cache and writes go to the database first, then the cache, then change listeners.
  */
 public class SettingsDAO {
 
+    private static volatile Map<String, String> cache;
+    private static final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
     /**
      * Get a setting value by key
      */
     public static String getSetting(String key) {
-        String sql = "SELECT value FROM settings WHERE key = ?";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, key);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getString("value");
+        Map<String, String> settings = getCache();
+        return settings != null ? settings.get(key) : null;
+    }
+
+    /**
+     * Listen for setting changes. Called with (key, new value), value null when deleted,
+     * on the thread that made the change.
+     */
+    public static void addChangeListener(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeChangeListener(BiConsumer<String, String> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Drop the cache so the next read reloads the table (after the database was changed externally)
+     */
+    public static void invalidateCache() {
+        cache = null;
+    }
+
+    private static Map<String, String> getCache() {
+        Map<String, String> settings = cache;
+        if (settings == null) {
+            synchronized (SettingsDAO.class) {
+                settings = cache;
+                if (settings == null) {
+                    settings = loadSettings();
+                    cache = settings;
+                }
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * @return All settings, or null if they could not be read (retried on the next access)
+     */
+    private static Map<String, String> loadSettings() {
+        String sql = "SELECT key, value FROM settings";
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            Map<String, String> settings = new ConcurrentHashMap<>();
+            while (rs.next()) {
+                String value = rs.getString("value");
+                // ConcurrentHashMap has no null values; a missing key reads as null anyway
+                if (value != null) {
+                    settings.put(rs.getString("key"), value);
+                }
             }
+            return settings;
         } catch (SQLException e) {
-            System.err.println("Error getting setting: " + e.getMessage());
+            System.err.println("Error loading settings: " + e.getMessage());
             e.printStackTrace();
         }
         return null;
     }
 
+    private static void cacheAndNotify(String key, String value) {
+        Map<String, String> settings = cache;
+        String previous = null;
+        if (settings != null) {
+            previous = value != null ? settings.put(key, value) : settings.remove(key);
+        }
+        if (settings != null && Objects.equals(previous, value)) {
+            return;
+        }
+        for (BiConsumer<String, String> listener : listeners) {
+            try {
+                listener.accept(key, value);
+            } catch (RuntimeException e) {
+                System.err.println("Error in settings listener: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
-     * Set a setting value
+     * Set a setting value.
+     * Writes are serialized with cache loading so the cache never misses a committed write.
      */
-    public static boolean setSetting(String key, String value) {
+    public static synchronized boolean setSetting(String key, String value) {
         String sql = "INSERT OR REPLACE INTO settings (key, value) VALUES (?, ?)";
         
         try (Connection conn = DatabaseHelper.getConnection();
@@ -41,7 +119,10 @@ public class SettingsDAO {
             pstmt.setString(1, key);
             pstmt.setString(2, value);
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                cacheAndNotify(key, value);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error setting setting: " + e.getMessage());
             e.printStackTrace();
@@ -52,14 +133,17 @@ public class SettingsDAO {
     /**
      * Delete a setting
      */
-    public static boolean deleteSetting(String key) {
+    public static synchronized boolean deleteSetting(String key) {
         String sql = "DELETE FROM settings WHERE key = ?";
         
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, Integer.parseInt(key));
-            return pstmt.executeUpdate() > 0;
+            pstmt.setString(1, key);
+            if (pstmt.executeUpdate() > 0) {
+                cacheAndNotify(key, null);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting setting: " + e.getMessage());
             e.printStackTrace();
@@ -95,45 +179,175 @@ public class SettingsDAO {
         setSetting("last_sync_time", now);
     }
     
+    /**
+     * Highest target version uploaded to the cloud for this account (0 if none)
+     */
+    public static long getTargetsPushedVersion(String uid) {
+        return parseLong(getSetting("targets_pushed_version:" + uid));
+    }
+
+    public static boolean setTargetsPushedVersion(String uid, long version) {
+        return setSetting("targets_pushed_version:" + uid, String.valueOf(version));
+    }
+
+    /**
+     * Newest cloud updatedAt already downloaded for this account, in microseconds (0 if never)
+     */
+    public static long getTargetsPulledAt(String uid) {
+        return parseLong(getSetting("targets_pulled_at:" + uid));
+    }
+
+    public static boolean setTargetsPulledAt(String uid, long micros) {
+        return setSetting("targets_pulled_at:" + uid, String.valueOf(micros));
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final double DEFAULT_RATING = 5.0; // Default starting rating (scale 1-10)
+
     /**
      * Get current user rating
      */
     public static double getUserRating() {
-        String value = getSetting("user_rating");
+        return parseRating(getSetting("user_rating"));
+    }
+
+    private static double parseRating(String value) {
         if (value == null) {
-            return 5.0; // Default starting rating (scale 1-10)
+            return DEFAULT_RATING;
         }
         try {
             return Double.parseDouble(value);
         } catch (NumberFormatException e) {
-            return 5.0;
+            return DEFAULT_RATING;
         }
     }
     
     /**
-     * Set user rating
+     * Set user rating (recorded in the rating history as a reset)
      */
-    public static boolean setUserRating(double rating) {
-        return setSetting("user_rating", String.valueOf(rating));
+    public static synchronized boolean setUserRating(double rating) {
+        return recordRating(rating, true, "reset") != null;
     }
     
     /**
-     * Add to user rating (can be negative for penalty)
+     * Add to user rating (can be negative for penalty).
+     * The change is appended to rating_events and the total updated in one transaction,
+     * so concurrent adjustments never overwrite each other. Friends see the new rating
+     * through a background sync.
+     * @return The new rating (the current one if the change could not be saved)
      */
-    public static double adjustUserRating(double delta) {
-        double current = getUserRating();
-        double newRating = Math.max(0, current + delta); // Minimum 0
-        setUserRating(newRating);
-        
-        // Sync to Firebase for friends to see
-        try {
-            com.icpx.service.FriendsService.syncUserRatingToFirebase(newRating);
-        } catch (Exception e) {
-            // Ignore sync errors
+    public static synchronized double adjustUserRating(double delta) {
+        Double newRating = recordRating(delta, false, "target");
+        return newRating != null ? newRating : getUserRating();
+    }
+
+    /**
+     * Append a rating event and update the running total
+     * @param value The delta, or the new rating when absolute is true
+     * @return The new rating, or null on error
+     */
+    private static Double recordRating(double value, boolean absolute, String reason) {
+        String selectSql = "SELECT value FROM settings WHERE key = 'user_rating'";
+        String updateSql = "INSERT OR REPLACE INTO settings (key, value) VALUES ('user_rating', ?)";
+        String eventSql = "INSERT INTO rating_events (delta, rating, reason) VALUES (?, ?, ?)";
+
+        double newRating;
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                 PreparedStatement eventStmt = conn.prepareStatement(eventSql)) {
+
+                // Read the total inside the transaction rather than from the cache
+                double current;
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    current = parseRating(rs.next() ? rs.getString("value") : null);
+                }
+                newRating = Math.max(0, absolute ? value : current + value); // Minimum 0
+
+                updateStmt.setString(1, String.valueOf(newRating));
+                updateStmt.executeUpdate();
+
+                eventStmt.setDouble(1, newRating - current);
+                eventStmt.setDouble(2, newRating);
+                eventStmt.setString(3, reason);
+                eventStmt.executeUpdate();
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error recording rating change: " + e.getMessage());
+            e.printStackTrace();
+            return null;
         }
-        
+
+        cacheAndNotify("user_rating", String.valueOf(newRating));
+        com.icpx.service.FriendsService.requestRatingSync(newRating);
         return newRating;
     }
+
+    /**
+     * Get the most recent rating changes, oldest first
+     * @param limit Maximum number of events
+     */
+    public static List<RatingEvent> getRatingHistory(int limit) {
+        String sql = "SELECT delta, rating, reason, created_at FROM rating_events ORDER BY id DESC LIMIT ?";
+        List<RatingEvent> history = new ArrayList<>();
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    history.add(new RatingEvent(
+                        rs.getDouble("delta"),
+                        rs.getDouble("rating"),
+                        rs.getString("reason"),
+                        createdAt != null ? createdAt.toLocalDateTime() : null));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting rating history: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        Collections.reverse(history);
+        return history;
+    }
+
+    /**
+     * Inner class to hold one rating change
+     */
+    public static class RatingEvent {
+        public final double delta;
+        public final double rating;
+        public final String reason;
+        public final java.time.LocalDateTime createdAt;
+
+        public RatingEvent(double delta, double rating, String reason, java.time.LocalDateTime createdAt) {
+            this.delta = delta;
+            this.rating = rating;
+            this.reason = reason;
+            this.createdAt = createdAt;
+        }
+    }
     
     /**
      * Calculate rating change when completing a target
@@ -0,0 +1,174 @@
+package com.icpx.database;
+
+import com.icpx.model.ProblemKey;
+import com.icpx.model.Submission;
+import com.icpx.util.LongHashSet;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for locally stored Codeforces submissions.
+ * Handles are stored lower-cased since Codeforces handles are case-insensitive.
+ */
+public class SubmissionDAO {
+
+    /**
+     * Insert or refresh a set of submissions for a handle
+     */
+    public static boolean insertSubmissions(String handle, List<Submission> submissions) {
+        if (submissions.isEmpty()) {
+            return true;
+        }
+
+        String sql = "INSERT OR REPLACE INTO submissions (id, handle, contest_id, problem_index, verdict, creation_time_seconds) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                String normalizedHandle = normalizeHandle(handle);
+                for (Submission submission : submissions) {
+                    pstmt.setLong(1, submission.getId());
+                    pstmt.setString(2, normalizedHandle);
+                    pstmt.setInt(3, submission.getContestId());
+                    pstmt.setString(4, submission.getProblemIndex());
+                    pstmt.setString(5, submission.getVerdict());
+                    pstmt.setLong(6, submission.getCreationTimeSeconds());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving submissions: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Get the submission id up to which the stored history is final.
+     * Submissions newer than this id must be (re)fetched; 0 means nothing is stored yet.
+     */
+    public static long getSyncFloorId(String handle) {
+        String pendingSql = "SELECT MIN(id) FROM submissions WHERE handle = ? AND (verdict IS NULL OR verdict = 'TESTING')";
+        String maxSql = "SELECT MAX(id) FROM submissions WHERE handle = ?";
+
+        try (Connection conn = DatabaseHelper.getReadConnection()) {
+            String normalizedHandle = normalizeHandle(handle);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(pendingSql)) {
+                pstmt.setString(1, normalizedHandle);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    long oldestPending = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        return oldestPending - 1;
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(maxSql)) {
+                pstmt.setString(1, normalizedHandle);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting submission sync floor: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Check if a handle has an accepted submission for a problem
+     */
+    public static boolean isProblemAccepted(String handle, String contestId, String problemIndex) {
+        String sql = "SELECT 1 FROM submissions WHERE handle = ? AND contest_id = ? AND problem_index = ? AND verdict = 'OK' LIMIT 1";
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, normalizeHandle(handle));
+            pstmt.setInt(2, Integer.parseInt(contestId));
+            pstmt.setString(3, problemIndex);
+            ResultSet rs = pstmt.executeQuery();
+
+            return rs.next();
+        } catch (SQLException | NumberFormatException e) {
+            System.err.println("Error checking accepted submission: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Get every problem a handle has an accepted submission for, as packed ProblemKey values
+     */
+    public static LongHashSet getAcceptedProblemKeys(String handle) {
+        LongHashSet keys = new LongHashSet(1024);
+        String sql = "SELECT DISTINCT contest_id, problem_index FROM submissions WHERE handle = ? AND verdict = 'OK'";
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, normalizeHandle(handle));
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                long key = ProblemKey.of(rs.getInt("contest_id"), rs.getString("problem_index"));
+                if (key != ProblemKey.NONE) {
+                    keys.add(key);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting accepted problems: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return keys;
+    }
+
+    /**
+     * Get accepted activity for heatmap (local date -> number of distinct problems solved)
+     */
+    public static Map<LocalDate, Integer> getSolvedActivity(String handle) {
+        Map<LocalDate, Integer> activityMap = new HashMap<>();
+        // Distinct (day, problem) rows first, so no per-row key strings are built
+        String sql = "SELECT date, COUNT(*) AS count FROM (" +
+                     "SELECT DISTINCT DATE(creation_time_seconds, 'unixepoch', 'localtime') AS date, contest_id, problem_index " +
+                     "FROM submissions WHERE handle = ? AND verdict = 'OK'" +
+                     ") GROUP BY date";
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, normalizeHandle(handle));
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                String dateStr = rs.getString("date");
+                if (dateStr != null) {
+                    activityMap.put(LocalDate.parse(dateStr), rs.getInt("count"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting submission activity: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return activityMap;
+    }
+
+    private static String normalizeHandle(String handle) {
+        return handle.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,141 @@
+package com.icpx.database;
+
+import com.google.gson.Gson;
+
+import java.sql.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data Access Object for the content hashes of uploaded cloud documents.
+ * Collections are full cloud paths (users/{uid}/history), so accounts never share hashes.
+ */
+public class SyncStateDAO {
+
+    private static final String SELECT_COLLECTION_SQL = "SELECT doc_id, content_hash FROM sync_state WHERE collection = ?";
+    // The ids are bound as one JSON array, so any number of them fits one statement
+    private static final String SELECT_DOCS_SQL = "SELECT doc_id, content_hash FROM sync_state " +
+            "WHERE collection = ? AND doc_id IN (SELECT value FROM json_each(?))";
+    private static final String UPSERT_SQL = "INSERT INTO sync_state (collection, doc_id, content_hash, synced_at) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT(collection, doc_id) DO UPDATE SET content_hash = excluded.content_hash, synced_at = excluded.synced_at";
+    private static final String DELETE_DOCS_SQL = "DELETE FROM sync_state " +
+            "WHERE collection = ? AND doc_id IN (SELECT value FROM json_each(?))";
+    private static final String CLEAR_SQL = "DELETE FROM sync_state";
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * Get the hashes of every uploaded document in a collection
+     * @return Content hash by document id
+     */
+    public static Map<String, Long> getHashes(String collection) {
+        Map<String, Long> hashes = new HashMap<>();
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_COLLECTION_SQL)) {
+            pstmt.setString(1, collection);
+            readHashes(pstmt, hashes);
+        } catch (SQLException e) {
+            System.err.println("Error getting sync state: " + e.getMessage());
+        }
+        return hashes;
+    }
+
+    /**
+     * Get the hashes of some documents in a collection; documents never uploaded are left out
+     */
+    public static Map<String, Long> getHashes(String collection, Collection<String> docIds) {
+        Map<String, Long> hashes = new HashMap<>();
+        if (docIds.isEmpty()) {
+            return hashes;
+        }
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_DOCS_SQL)) {
+            pstmt.setString(1, collection);
+            pstmt.setString(2, gson.toJson(docIds));
+            readHashes(pstmt, hashes);
+        } catch (SQLException e) {
+            System.err.println("Error getting sync state: " + e.getMessage());
+        }
+        return hashes;
+    }
+
+    private static void readHashes(PreparedStatement pstmt, Map<String, Long> hashes) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                hashes.put(rs.getString("doc_id"), rs.getLong("content_hash"));
+            }
+        }
+    }
+
+    /**
+     * Record the hashes of documents the cloud now holds, in one transaction
+     */
+    public static boolean saveHashes(String collection, Map<String, Long> hashes) {
+        if (hashes.isEmpty()) {
+            return true;
+        }
+        try (Connection conn = DatabaseHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+
+            long now = System.currentTimeMillis();
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, Long> entry : hashes.entrySet()) {
+                    pstmt.setString(1, collection);
+                    pstmt.setString(2, entry.getKey());
+                    pstmt.setLong(3, entry.getValue());
+                    pstmt.setLong(4, now);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving sync state: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Forget the hashes of some documents, e.g. after a download replaced their content in the cloud
+     */
+    public static boolean deleteHashes(String collection, Collection<String> docIds) {
+        if (docIds.isEmpty()) {
+            return true;
+        }
+        try (Connection conn = DatabaseHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_DOCS_SQL)) {
+            pstmt.setString(1, collection);
+            pstmt.setString(2, gson.toJson(docIds));
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error deleting sync state: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Forget every recorded hash, so the next upload compares everything again
+     */
+    public static boolean clear() {
+        try (Connection conn = DatabaseHelper.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(CLEAR_SQL);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error clearing sync state: " + e.getMessage());
+        }
+        return false;
+    }
+}
@@ -5,6 +5,7 @@ import com.icpx.model.Target;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -12,6 +13,70 @@ import java.util.List;
  */
 public class TargetDAO {
 
+    // Every query this DAO runs; QueryPlanAudit checks their plans against the indexes
+    private static final String INSERT_SQL = "INSERT INTO targets (type, name, problem_link, topic_name, website_url, status, rating, archived, deadline) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Skips rows whose problem_link already exists and returns the id of each row actually inserted.
+    // Checked with NOT EXISTS (idx_targets_problem_link_lookup) rather than ON CONFLICT, because
+    // the unique index is missing on databases that already held duplicates.
+    private static final String BULK_INSERT_SQL = "INSERT INTO targets (type, name, problem_link, topic_name, website_url, status, rating, archived, deadline) " +
+            "SELECT ?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9 " +
+            "WHERE ?3 IS NULL OR ?3 = '' OR NOT EXISTS (SELECT 1 FROM targets WHERE problem_link = ?3) RETURNING id";
+    private static final String SELECT_ALL_FOR_SYNC_SQL = "SELECT * FROM targets";
+    private static final String SELECT_ACTIVE_SQL = "SELECT * FROM targets WHERE archived = 0 ORDER BY created_at DESC";
+    private static final String SELECT_RECENT_SQL = "SELECT * FROM targets WHERE archived = 0 ORDER BY created_at DESC LIMIT ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT * FROM targets WHERE id = ?";
+    private static final String SELECT_BY_PROBLEM_LINK_SQL = "SELECT * FROM targets WHERE problem_link = ?";
+    private static final String SELECT_STATUS_DEADLINE_SQL = "SELECT status, deadline FROM targets WHERE id = ?";
+    private static final String SELECT_UNSOLVED_PROBLEMS_SQL = "SELECT * FROM targets WHERE type = 'problem' AND status IN ('pending', 'failed') AND archived = 0";
+    private static final String SELECT_ACHIEVED_PROBLEMS_SQL = "SELECT * FROM targets WHERE type = 'problem' AND status = 'achieved' ORDER BY created_at DESC";
+    private static final String SELECT_ACHIEVED_TOPICS_SQL = "SELECT * FROM targets WHERE type = 'topic' AND status = 'achieved' ORDER BY created_at DESC";
+    // Keyset pages, newest first; each page starts after the (created_at, id) of the previous one
+    private static final String SELECT_ACTIVE_PAGE_SQL = "SELECT * FROM targets WHERE archived = 0 AND (created_at, id) < (?, ?) " +
+            "ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String SELECT_ACHIEVED_PAGE_SQL = "SELECT * FROM targets WHERE type = ? AND status = 'achieved' AND (created_at, id) < (?, ?) " +
+            "ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String ACHIEVED_STATS_SQL = "SELECT COUNT(*), AVG(rating) FROM targets WHERE type = ? AND status = 'achieved'";
+    private static final String COUNT_BY_STATUS_SQL = "SELECT COUNT(*) FROM targets WHERE status = ?";
+    // Daily counts come from daily_activity, which triggers keep in step with targets
+    private static final String COUNT_ADDED_TODAY_SQL = "SELECT added FROM daily_activity WHERE date = DATE('now', 'localtime')";
+    private static final String COUNT_SOLVED_TODAY_SQL = "SELECT solved + topics FROM daily_activity WHERE date = DATE('now', 'localtime')";
+    private static final String ACTIVITY_HEATMAP_SQL = "SELECT date, solved as count FROM daily_activity " +
+            "WHERE solved > 0 ORDER BY date DESC LIMIT 365";
+    private static final String SELECT_DAILY_ACTIVITY_SQL = "SELECT date, added, solved, topics FROM daily_activity ORDER BY date";
+    // Full-text search, best match first; null type or status matches any
+    private static final String SEARCH_SQL = "SELECT t.* FROM targets_fts JOIN targets t ON t.id = targets_fts.rowid " +
+            "WHERE targets_fts MATCH ? AND (? IS NULL OR t.type = ?) AND (? IS NULL OR t.status = ?) " +
+            "ORDER BY targets_fts.rank LIMIT ?";
+    // Delta sync: rows changed locally after the last upload, and rows written by a download.
+    // Setting updated_at explicitly keeps the version triggers from marking downloads as local changes.
+    private static final String SELECT_CHANGED_SINCE_SQL = "SELECT * FROM targets WHERE version > ? ORDER BY version LIMIT ?";
+    private static final String APPLY_SYNCED_INSERT_SQL = "INSERT INTO targets (type, name, problem_link, topic_name, website_url, status, rating, archived, deadline, version, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+    private static final String APPLY_SYNCED_UPDATE_SQL = "UPDATE targets SET type = ?, name = ?, problem_link = ?, topic_name = ?, " +
+            "website_url = ?, status = ?, rating = ?, archived = ?, updated_at = ? WHERE id = ?";
+    // Bulk download merge. Targets with a link are upserted on the partial unique index,
+    // leaving rows that already hold the same content untouched; ones without a link
+    // match our own upload coming back by id, type and name.
+    private static final String MERGE_BY_LINK_SQL = APPLY_SYNCED_INSERT_SQL + " " +
+            "ON CONFLICT(problem_link) WHERE problem_link IS NOT NULL AND problem_link != '' DO UPDATE SET " +
+            "type = excluded.type, name = excluded.name, topic_name = excluded.topic_name, website_url = excluded.website_url, " +
+            "status = excluded.status, rating = excluded.rating, archived = excluded.archived, updated_at = excluded.updated_at " +
+            "WHERE type IS NOT excluded.type OR name IS NOT excluded.name OR topic_name IS NOT excluded.topic_name " +
+            "OR website_url IS NOT excluded.website_url OR status IS NOT excluded.status OR rating IS NOT excluded.rating " +
+            "OR archived IS NOT excluded.archived";
+    private static final String MATCH_BY_ID_SQL = "SELECT id FROM targets WHERE id = ? AND type IS ? AND name IS ?";
+    // Numbered parameters, so the change check reuses the new values bound to 1-8
+    private static final String MERGE_BY_ID_SQL = "UPDATE targets SET type = ?1, name = ?2, problem_link = ?3, topic_name = ?4, " +
+            "website_url = ?5, status = ?6, rating = ?7, archived = ?8, updated_at = ?9 WHERE id = ?10 " +
+            "AND (type IS NOT ?1 OR name IS NOT ?2 OR problem_link IS NOT ?3 OR topic_name IS NOT ?4 " +
+            "OR website_url IS NOT ?5 OR status IS NOT ?6 OR rating IS NOT ?7 OR archived IS NOT ?8)";
+    private static final String UPDATE_SQL = "UPDATE targets SET type = ?, name = ?, problem_link = ?, topic_name = ?, " +
+            "website_url = ?, status = ?, rating = ?, archived = ? WHERE id = ?";
+    private static final String UPDATE_STATUS_SQL = "UPDATE targets SET status = ? WHERE id = ?";
+    private static final String UPDATE_RATING_SQL = "UPDATE targets SET rating = ? WHERE id = ?";
+    private static final String ARCHIVE_SQL = "UPDATE targets SET archived = 1 WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM targets WHERE id = ?";
+
     /**
      * Insert a new target into the database
      */
@@ -24,29 +89,11 @@ public class TargetDAO {
                 return false; // Duplicate, don't insert
             }
         }
-        
-        String sql = "INSERT INTO targets (type, name, problem_link, topic_name, website_url, status, rating, archived, deadline) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
+
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            pstmt.setString(1, target.getType());
-            pstmt.setString(2, target.getName());
-            pstmt.setString(3, target.getProblemLink());
-            pstmt.setString(4, target.getTopicName());
-            pstmt.setString(5, target.getWebsiteUrl());
-            pstmt.setString(6, target.getStatus());
-            if (target.getRating() != null) {
-                pstmt.setInt(7, target.getRating());
-            } else {
-                pstmt.setNull(7, Types.INTEGER);
-            }
-            pstmt.setInt(8, target.isArchived() ? 1 : 0);
-            if (target.getDeadline() != null) {
-                pstmt.setTimestamp(9, Timestamp.valueOf(target.getDeadline()));
-            } else {
-                pstmt.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now().plusHours(24)));
-            }
+            bindTarget(pstmt, target);
             
             int affectedRows = pstmt.executeUpdate();
             
@@ -71,6 +118,73 @@ public class TargetDAO {
         return false;
     }
 
+    /**
+     * Insert many targets in one transaction, skipping ones whose problem link already exists
+     * (in the database or earlier in the list). Inserted targets get their ids set.
+     * @return Which targets were inserted and which were skipped; null if the insert failed
+     */
+    public static BulkInsertResult insertTargets(List<Target> targets) {
+        List<Target> inserted = new ArrayList<>();
+        List<Target> skipped = new ArrayList<>();
+        if (targets.isEmpty()) {
+            return new BulkInsertResult(inserted, skipped);
+        }
+
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(BULK_INSERT_SQL)) {
+                for (Target target : targets) {
+                    bindTarget(pstmt, target);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            target.setId(rs.getInt(1));
+                            inserted.add(target);
+                        } else {
+                            skipped.add(target);
+                        }
+                    }
+                }
+                // One commit, so one sync to disk for the whole import
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error bulk inserting targets: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return new BulkInsertResult(inserted, skipped);
+    }
+
+    private static void bindTarget(PreparedStatement pstmt, Target target) throws SQLException {
+        bindFields(pstmt, target);
+        if (target.getDeadline() != null) {
+            pstmt.setTimestamp(9, Timestamp.valueOf(target.getDeadline()));
+        } else {
+            pstmt.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now().plusHours(24)));
+        }
+    }
+
+    /**
+     * Bind type, name, problem_link, topic_name, website_url, status, rating and archived to parameters 1-8
+     */
+    private static void bindFields(PreparedStatement pstmt, Target target) throws SQLException {
+        pstmt.setString(1, target.getType());
+        pstmt.setString(2, target.getName());
+        pstmt.setString(3, target.getProblemLink());
+        pstmt.setString(4, target.getTopicName());
+        pstmt.setString(5, target.getWebsiteUrl());
+        pstmt.setString(6, target.getStatus());
+        if (target.getRating() != null) {
+            pstmt.setInt(7, target.getRating());
+        } else {
+            pstmt.setNull(7, Types.INTEGER);
+        }
+        pstmt.setInt(8, target.isArchived() ? 1 : 0);
+    }
+
     /**
      * Get all targets from the database
      */
@@ -79,11 +193,9 @@ public class TargetDAO {
      */
     public static List<Target> getAllTargetsForSync() {
         List<Target> targets = new ArrayList<>();
-        String sql = "SELECT * FROM targets"; // No filter
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(SELECT_ALL_FOR_SYNC_SQL)) {
             
             while (rs.next()) {
                 targets.add(extractTargetFromResultSet(rs));
@@ -100,11 +212,9 @@ public class TargetDAO {
      */
     public static List<Target> getAllTargets() {
         List<Target> targets = new ArrayList<>();
-        String sql = "SELECT * FROM targets WHERE archived = 0 ORDER BY created_at DESC";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(SELECT_ACTIVE_SQL)) {
             
             while (rs.next()) {
                 targets.add(extractTargetFromResultSet(rs));
@@ -117,13 +227,259 @@ public class TargetDAO {
     }
 
     /**
-     * Get a target by ID
+     * Get one page of active targets, newest first
+     * @param after Cursor from the previous page, or null for the first page
+     * @param limit Page size
      */
-    public static Target getTargetById(int id) {
-        String sql = "SELECT * FROM targets WHERE id = ?";
-        
+    public static TargetPage getActiveTargetsPage(PageCursor after, int limit) {
+        return queryPage(SELECT_ACTIVE_PAGE_SQL, null, after, limit);
+    }
+
+    /**
+     * Get one page of achieved targets of a type ("problem" or "topic"), newest first
+     * @param after Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     */
+    public static TargetPage getAchievedPage(String type, PageCursor after, int limit) {
+        return queryPage(SELECT_ACHIEVED_PAGE_SQL, type, after, limit);
+    }
+
+    private static TargetPage queryPage(String sql, String type, PageCursor after, int limit) {
+        PageCursor from = after != null ? after : PageCursor.START;
+        List<Target> targets = new ArrayList<>();
+        PageCursor last = null;
+        boolean more = false;
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (type != null) {
+                pstmt.setString(index++, type);
+            }
+            pstmt.setString(index++, from.createdAt);
+            pstmt.setInt(index++, from.id);
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index, limit + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (targets.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    targets.add(extractTargetFromResultSet(rs));
+                    // The raw column text, so the next comparison matches what is stored
+                    last = new PageCursor(rs.getString("created_at"), rs.getInt("id"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting page of targets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new TargetPage(targets, more ? last : null);
+    }
+
+    /**
+     * Count achieved targets of a type and their average rating, without loading them
+     */
+    public static AchievedStats getAchievedStats(String type) {
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ACHIEVED_STATS_SQL)) {
+
+            pstmt.setString(1, type);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    // AVG ignores unrated targets and is NULL when none are rated
+                    return new AchievedStats(rs.getInt(1), rs.getDouble(2));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting achieved stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new AchievedStats(0, 0);
+    }
+
+    /**
+     * Inner class to hold a position in a paged list: the last row of the previous page
+     */
+    public static class PageCursor {
+        // Sorts after every stored timestamp and id
+        private static final PageCursor START = new PageCursor("9999-12-31 23:59:59", Integer.MAX_VALUE);
+
+        public final String createdAt;
+        public final int id;
+
+        public PageCursor(String createdAt, int id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Inner class to hold one page of targets
+     */
+    public static class TargetPage {
+        public final List<Target> targets;
+        // Null on the last page
+        public final PageCursor next;
+
+        public TargetPage(List<Target> targets, PageCursor next) {
+            this.targets = targets;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Inner class to hold achieved target statistics
+     */
+    public static class AchievedStats {
+        public final int count;
+        public final double averageRating;
+
+        public AchievedStats(int count, double averageRating) {
+            this.count = count;
+            this.averageRating = averageRating;
+        }
+    }
+
+    /**
+     * Get targets inserted or edited locally after the given version, lowest version first
+     * @param version Highest version already uploaded (0 for none)
+     * @param limit Maximum number of targets
+     */
+    public static List<Target> getTargetsChangedSince(long version, int limit) {
+        List<Target> targets = new ArrayList<>();
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_CHANGED_SINCE_SQL)) {
+
+            pstmt.setLong(1, version);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    targets.add(extractTargetFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting changed targets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return targets;
+    }
+
+    /**
+     * Save targets downloaded from the cloud in one transaction, without marking them as
+     * local changes. Matches existing targets the same way as applySyncedTarget.
+     * @param targets Downloaded targets with the id they were uploaded with (or 0) and
+     *                the cloud copy's updatedAt
+     * @return Number of targets inserted or changed, or -1 if nothing was saved
+     */
+    public static int mergeTargets(List<Target> targets) {
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement byLink = conn.prepareStatement(MERGE_BY_LINK_SQL);
+                 PreparedStatement matchById = conn.prepareStatement(MATCH_BY_ID_SQL);
+                 PreparedStatement byId = conn.prepareStatement(MERGE_BY_ID_SQL);
+                 PreparedStatement insert = conn.prepareStatement(APPLY_SYNCED_INSERT_SQL)) {
+
+                int merged = 0;
+                for (Target target : targets) {
+                    boolean hasLink = target.getProblemLink() != null && !target.getProblemLink().trim().isEmpty();
+                    if (hasLink) {
+                        bindTarget(byLink, target);
+                        byLink.setLong(10, target.getUpdatedAt());
+                        byLink.addBatch();
+                        continue;
+                    }
+                    if (target.getId() > 0 && matchesById(matchById, target)) {
+                        // Left untouched (and not counted) when nothing differs
+                        bindFields(byId, target);
+                        byId.setLong(9, target.getUpdatedAt());
+                        byId.setInt(10, target.getId());
+                        merged += byId.executeUpdate();
+                        continue;
+                    }
+                    bindTarget(insert, target);
+                    insert.setLong(10, target.getUpdatedAt());
+                    merged += insert.executeUpdate();
+                }
+                for (int count : byLink.executeBatch()) {
+                    merged += Math.max(count, 0);
+                }
+                conn.commit();
+                return merged;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // Also when the unique index on problem_link is missing (older databases with duplicates)
+            System.err.println("Error merging synced targets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private static boolean matchesById(PreparedStatement matchById, Target target) throws SQLException {
+        matchById.setInt(1, target.getId());
+        matchById.setString(2, target.getType());
+        matchById.setString(3, target.getName());
+        try (ResultSet rs = matchById.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Save a target downloaded from the cloud without marking it as a local change.
+     * Matches an existing target by problem link, or for targets without one (topics) by the
+     * uploaded id when type and name agree, so our own uploads coming back are not duplicated.
+     * @param target Downloaded target; its id is the id it was uploaded with, or 0
+     * @param updatedAtMillis When the cloud copy was last changed
+     * @return true if a target was inserted or updated
+     */
+    public static boolean applySyncedTarget(Target target, long updatedAtMillis) {
+        Target existing = getTargetByProblemLink(target.getProblemLink());
+        if (existing == null && target.getId() > 0
+                && (target.getProblemLink() == null || target.getProblemLink().trim().isEmpty())) {
+            Target sameId = getTargetById(target.getId());
+            if (sameId != null && java.util.Objects.equals(sameId.getType(), target.getType())
+                    && java.util.Objects.equals(sameId.getName(), target.getName())) {
+                existing = sameId;
+            }
+        }
+        String sql = existing != null ? APPLY_SYNCED_UPDATE_SQL : APPLY_SYNCED_INSERT_SQL;
+
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            if (existing != null) {
+                bindFields(pstmt, target);
+                pstmt.setLong(9, updatedAtMillis);
+                pstmt.setInt(10, existing.getId());
+            } else {
+                bindTarget(pstmt, target);
+                pstmt.setLong(10, updatedAtMillis);
+            }
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error applying synced target: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Get a target by ID
+     */
+    public static Target getTargetById(int id) {
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -145,11 +501,9 @@ public class TargetDAO {
         if (problemLink == null || problemLink.trim().isEmpty()) {
             return null;
         }
-        
-        String sql = "SELECT * FROM targets WHERE problem_link = ?";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_PROBLEM_LINK_SQL)) {
             
             pstmt.setString(1, problemLink.trim());
             ResultSet rs = pstmt.executeQuery();
@@ -168,10 +522,8 @@ public class TargetDAO {
      * Update target status
      */
     public static boolean updateTargetStatus(int id, String status) {
-        String sql = "UPDATE targets SET status = ? WHERE id = ?";
-        
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
             
             pstmt.setString(1, status);
             pstmt.setInt(2, id);
@@ -189,24 +541,60 @@ public class TargetDAO {
      * @return The rating change applied (positive or negative)
      */
     public static double updateTargetStatusWithRating(int id, String status) {
-        Target target = getTargetById(id);
-        if (target == null) {
+        return updateTargetStatusesWithRating(Collections.singletonList(id), status);
+    }
+
+    /**
+     * Update the status of several targets in a single transaction, with rating adjustment
+     * @return The total rating change applied (positive or negative)
+     */
+    public static double updateTargetStatusesWithRating(List<Integer> ids, String status) {
+        if (ids.isEmpty()) {
             return 0;
         }
-        
         double ratingChange = 0;
-        
-        // Calculate rating change when marking as achieved
-        if ("achieved".equals(status) && !"achieved".equals(target.getStatus())) {
-            LocalDateTime now = LocalDateTime.now();
-            ratingChange = SettingsDAO.calculateRatingChange(target.getDeadline(), now);
+
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectStmt = conn.prepareStatement(SELECT_STATUS_DEADLINE_SQL);
+                 PreparedStatement updateStmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
+
+                LocalDateTime now = LocalDateTime.now();
+                for (int id : ids) {
+                    selectStmt.setInt(1, id);
+                    try (ResultSet rs = selectStmt.executeQuery()) {
+                        if (!rs.next()) {
+                            continue;
+                        }
+
+                        // Calculate rating change when marking as achieved
+                        if ("achieved".equals(status) && !"achieved".equals(rs.getString("status"))) {
+                            Timestamp deadline = rs.getTimestamp("deadline");
+                            ratingChange += SettingsDAO.calculateRatingChange(
+                                deadline != null ? deadline.toLocalDateTime() : null, now);
+                        }
+                    }
+
+                    updateStmt.setString(1, status);
+                    updateStmt.setInt(2, id);
+                    updateStmt.addBatch();
+                }
+                updateStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating target statuses: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+
+        if (ratingChange != 0) {
             SettingsDAO.adjustUserRating(ratingChange);
             System.out.println("Rating change: " + ratingChange + ", new rating: " + SettingsDAO.getUserRating());
         }
-        
-        // Update the status
-        updateTargetStatus(id, status);
-        
         return ratingChange;
     }
 
@@ -214,24 +602,10 @@ public class TargetDAO {
      * Update a target completely (for sync from Firebase)
      */
     public static boolean updateTarget(Target target) {
-        String sql = "UPDATE targets SET type = ?, name = ?, problem_link = ?, topic_name = ?, " +
-                     "website_url = ?, status = ?, rating = ?, archived = ? WHERE id = ?";
-        
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
             
-            pstmt.setString(1, target.getType());
-            pstmt.setString(2, target.getName());
-            pstmt.setString(3, target.getProblemLink());
-            pstmt.setString(4, target.getTopicName());
-            pstmt.setString(5, target.getWebsiteUrl());
-            pstmt.setString(6, target.getStatus());
-            if (target.getRating() != null) {
-                pstmt.setInt(7, target.getRating());
-            } else {
-                pstmt.setNull(7, Types.INTEGER);
-            }
-            pstmt.setInt(8, target.isArchived() ? 1 : 0);
+            bindFields(pstmt, target);
             pstmt.setInt(9, target.getId());
             
             return pstmt.executeUpdate() > 0;
@@ -252,9 +626,8 @@ public class TargetDAO {
         Target target = getTargetById(id);
         if (target != null && "achieved".equals(target.getStatus())) {
             // Soft delete - mark as archived
-            String sql = "UPDATE targets SET archived = 1 WHERE id = ?";
             try (Connection conn = DatabaseHelper.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                 PreparedStatement pstmt = conn.prepareStatement(ARCHIVE_SQL)) {
                 pstmt.setInt(1, id);
                 return pstmt.executeUpdate() > 0;
             } catch (SQLException e) {
@@ -263,9 +636,8 @@ public class TargetDAO {
             }
         } else {
             // Hard delete
-            String sql = "DELETE FROM targets WHERE id = ?";
             try (Connection conn = DatabaseHelper.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                 PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
                 pstmt.setInt(1, id);
                 return pstmt.executeUpdate() > 0;
             } catch (SQLException e) {
@@ -280,10 +652,8 @@ public class TargetDAO {
      * Get count of targets by status
      */
     public static int getTargetCountByStatus(String status) {
-        String sql = "SELECT COUNT(*) FROM targets WHERE status = ?";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(COUNT_BY_STATUS_SQL)) {
             
             pstmt.setString(1, status);
             ResultSet rs = pstmt.executeQuery();
@@ -298,16 +668,33 @@ public class TargetDAO {
         return 0;
     }
 
+    /**
+     * Get all problem targets that are not achieved yet (pending or failed)
+     */
+    public static List<Target> getUnsolvedProblems() {
+        List<Target> targets = new ArrayList<>();
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_UNSOLVED_PROBLEMS_SQL)) {
+            
+            while (rs.next()) {
+                targets.add(extractTargetFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting unsolved problems: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return targets;
+    }
+
     /**
      * Get all achieved problem targets (solved problems)
      */
     public static List<Target> getAchievedProblems() {
         List<Target> targets = new ArrayList<>();
-        String sql = "SELECT * FROM targets WHERE type = 'problem' AND status = 'achieved' ORDER BY created_at DESC";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(SELECT_ACHIEVED_PROBLEMS_SQL)) {
             
             while (rs.next()) {
                 targets.add(extractTargetFromResultSet(rs));
@@ -324,11 +711,9 @@ public class TargetDAO {
      */
     public static List<Target> getAchievedTopics() {
         List<Target> targets = new ArrayList<>();
-        String sql = "SELECT * FROM targets WHERE type = 'topic' AND status = 'achieved' ORDER BY created_at DESC";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(SELECT_ACHIEVED_TOPICS_SQL)) {
             
             while (rs.next()) {
                 targets.add(extractTargetFromResultSet(rs));
@@ -340,6 +725,67 @@ public class TargetDAO {
         return targets;
     }
 
+    /**
+     * Search target names, topics and URLs.
+     * Every word in the query must match the start of a word in the target, so "dyn prog"
+     * finds "Dynamic Programming". Results are ranked with name matches first.
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @return Matching targets, best first (empty if the query has no words)
+     */
+    public static List<Target> search(String query, int limit) {
+        return search(query, null, null, limit);
+    }
+
+    /**
+     * Search targets of one type and status (either may be null for any)
+     */
+    public static List<Target> search(String query, String type, String status, int limit) {
+        List<Target> targets = new ArrayList<>();
+        String match = toMatchExpression(query);
+        if (match == null) {
+            return targets;
+        }
+
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_SQL)) {
+
+            pstmt.setString(1, match);
+            pstmt.setString(2, type);
+            pstmt.setString(3, type);
+            pstmt.setString(4, status);
+            pstmt.setString(5, status);
+            pstmt.setInt(6, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    targets.add(extractTargetFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error searching targets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return targets;
+    }
+
+    /**
+     * Turn user input into an FTS5 query of quoted prefix terms, so operators and
+     * punctuation in the input are never parsed as query syntax
+     */
+    private static String toMatchExpression(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                match.append(match.length() > 0 ? " " : "").append('"').append(word).append("\"*");
+            }
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
     /**
      * Extract Target object from ResultSet
      */
@@ -366,6 +812,8 @@ public class TargetDAO {
         // Archived status
         int archived = rs.getInt("archived");
         target.setArchived(archived == 1);
+        target.setVersion(rs.getLong("version"));
+        target.setUpdatedAt(rs.getLong("updated_at"));
         
         // Deadline
         try {
@@ -384,10 +832,8 @@ public class TargetDAO {
      * Update rating for a specific target
      */
     public static boolean updateTargetRating(int targetId, Integer rating) {
-        String sql = "UPDATE targets SET rating = ? WHERE id = ?";
-        
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_RATING_SQL)) {
             
             if (rating != null) {
                 pstmt.setInt(1, rating);
@@ -409,11 +855,9 @@ public class TargetDAO {
      * Get count of targets added today
      */
     public static int getDailyAddedCount() {
-        String sql = "SELECT COUNT(*) FROM targets WHERE DATE(created_at) = DATE('now', 'localtime')";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(COUNT_ADDED_TODAY_SQL)) {
             
             if (rs.next()) {
                 return rs.getInt(1);
@@ -429,11 +873,9 @@ public class TargetDAO {
      * Get count of targets solved today
      */
     public static int getDailySolvedCount() {
-        String sql = "SELECT COUNT(*) FROM targets WHERE status = 'achieved' AND DATE(created_at) = DATE('now', 'localtime')";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(COUNT_SOLVED_TODAY_SQL)) {
             
             if (rs.next()) {
                 return rs.getInt(1);
@@ -450,13 +892,9 @@ public class TargetDAO {
      */
     public static java.util.Map<java.time.LocalDate, Integer> getActivityHeatmapData() {
         java.util.Map<java.time.LocalDate, Integer> activityMap = new java.util.HashMap<>();
-        String sql = "SELECT DATE(created_at) as date, COUNT(*) as count FROM targets " +
-                     "WHERE status = 'achieved' AND type = 'problem' " +
-                     "GROUP BY DATE(created_at) ORDER BY date DESC LIMIT 365";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(ACTIVITY_HEATMAP_SQL)) {
             
             while (rs.next()) {
                 String dateStr = rs.getString("date");
@@ -474,15 +912,53 @@ public class TargetDAO {
         return activityMap;
     }
 
+    /**
+     * Get the per-day target counts, oldest day first
+     */
+    public static List<DailyActivity> getDailyActivity() {
+        List<DailyActivity> days = new ArrayList<>();
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_DAILY_ACTIVITY_SQL)) {
+
+            while (rs.next()) {
+                days.add(new DailyActivity(
+                    java.time.LocalDate.parse(rs.getString("date")),
+                    rs.getInt("added"),
+                    rs.getInt("solved"),
+                    rs.getInt("topics")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting daily activity: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return days;
+    }
+
+    /**
+     * Inner class to hold the target counts for one day
+     */
+    public static class DailyActivity {
+        public final java.time.LocalDate date;
+        public final int added;
+        public final int solved;
+        public final int topics;
+
+        public DailyActivity(java.time.LocalDate date, int added, int solved, int topics) {
+            this.date = date;
+            this.added = added;
+            this.solved = solved;
+            this.topics = topics;
+        }
+    }
+
     /**
      * Get recent targets (last N)
      */
     public static List<Target> getRecentTargets(int limit) {
         List<Target> targets = new ArrayList<>();
-        String sql = "SELECT * FROM targets WHERE archived = 0 ORDER BY created_at DESC LIMIT ?";
-        
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseHelper.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_RECENT_SQL)) {
             
             pstmt.setInt(1, limit);
             ResultSet rs = pstmt.executeQuery();
@@ -496,4 +972,17 @@ public class TargetDAO {
         }
         return targets;
     }
+
+    /**
+     * Inner class to hold the outcome of a bulk insert
+     */
+    public static class BulkInsertResult {
+        public final List<Target> inserted;
+        public final List<Target> skipped;
+
+        public BulkInsertResult(List<Target> inserted, List<Target> skipped) {
+            this.inserted = inserted;
+            this.skipped = skipped;
+        }
+    }
 }
@@ -16,7 +16,7 @@ public class UserDAO {
      */
     public static boolean userExists() throws SQLException {
         String query = "SELECT COUNT(*) as count FROM users";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             if (rs.next()) {
@@ -58,7 +58,7 @@ public class UserDAO {
      */
     public static User getCurrentUser() throws SQLException {
         String query = "SELECT * FROM users LIMIT 1";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             if (rs.next()) {
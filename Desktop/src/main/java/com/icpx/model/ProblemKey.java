@@ -0,0 +1,143 @@
+package com.icpx.model;
+
+/**
+ * Codeforces problem identity packed into a single long:
+ * the contest ID in the high 32 bits and up to 4 ASCII index characters in the low 32 bits.
+ * Keys sort by contest ID, then index. Used instead of "contestId/index" strings so
+ * submission scans and lookups don't allocate per row.
+ */
+public final class ProblemKey {
+
+    /** Returned when a URL or index cannot be represented as a key */
+    public static final long NONE = -1L;
+
+    private static final int MAX_INDEX_LENGTH = 4;
+
+    private ProblemKey() {
+    }
+
+    /**
+     * Build a key from a contest ID and problem index (e.g. "A", "B1")
+     * @return The key, or NONE if the index is empty, longer than 4 characters or not ASCII
+     */
+    public static long of(int contestId, String index) {
+        if (contestId < 0 || index == null) {
+            return NONE;
+        }
+        int length = index.length();
+        if (length == 0 || length > MAX_INDEX_LENGTH) {
+            return NONE;
+        }
+
+        long packedIndex = 0;
+        for (int i = 0; i < length; i++) {
+            char c = index.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                return NONE;
+            }
+            packedIndex = (packedIndex << 8) | c;
+        }
+        // Left-align so "B" sorts before "B1"
+        packedIndex <<= 8 * (MAX_INDEX_LENGTH - length);
+        return ((long) contestId << 32) | packedIndex;
+    }
+
+    public static int contestId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Unpack the problem index (allocates the returned String)
+     */
+    public static String index(long key) {
+        char[] chars = new char[MAX_INDEX_LENGTH];
+        int length = 0;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            char c = (char) ((key >>> shift) & 0xFF);
+            if (c == 0) {
+                break;
+            }
+            chars[length++] = c;
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Parse a Codeforces contest, problemset or gym problem URL without allocating:
+     * .../contest/{contestId}/problem/{index}, .../problemset/problem/{contestId}/{index}
+     * or .../gym/{contestId}/problem/{index}
+     * @return The key, or NONE if the URL is not a problem URL
+     */
+    public static long parseUrl(String url) {
+        if (url == null) {
+            return NONE;
+        }
+        long key = parseAfter(url, "contest/", "/problem/");
+        if (key == NONE) {
+            key = parseAfter(url, "problemset/problem/", "/");
+        }
+        if (key == NONE) {
+            key = parseAfter(url, "gym/", "/problem/");
+        }
+        return key;
+    }
+
+    private static long parseAfter(String url, String prefix, String separator) {
+        int from = url.indexOf(prefix);
+        while (from >= 0) {
+            long key = parseAt(url, from + prefix.length(), separator);
+            if (key != NONE) {
+                return key;
+            }
+            from = url.indexOf(prefix, from + 1);
+        }
+        return NONE;
+    }
+
+    /**
+     * Parse "{digits}{separator}{index}" starting at pos; the index is [A-Z0-9]+
+     */
+    private static long parseAt(String url, int pos, String separator) {
+        int length = url.length();
+
+        long contestId = 0;
+        int start = pos;
+        while (pos < length && url.charAt(pos) >= '0' && url.charAt(pos) <= '9') {
+            contestId = contestId * 10 + (url.charAt(pos) - '0');
+            if (contestId > Integer.MAX_VALUE) {
+                return NONE;
+            }
+            pos++;
+        }
+        if (pos == start || !url.startsWith(separator, pos)) {
+            return NONE;
+        }
+        pos += separator.length();
+
+        long packedIndex = 0;
+        int indexLength = 0;
+        while (pos < length) {
+            char c = url.charAt(pos);
+            if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            if (++indexLength > MAX_INDEX_LENGTH) {
+                return NONE;
+            }
+            packedIndex = (packedIndex << 8) | c;
+            pos++;
+        }
+        if (indexLength == 0) {
+            return NONE;
+        }
+        packedIndex <<= 8 * (MAX_INDEX_LENGTH - indexLength);
+        return (contestId << 32) | packedIndex;
+    }
+
+    /**
+     * Human-readable form, e.g. "1234B1"
+     */
+    public static String toString(long key) {
+        return key == NONE ? "NONE" : contestId(key) + index(key);
+    }
+}
@@ -0,0 +1,75 @@
+package com.icpx.model;
+
+/**
+ * Model class representing a single Codeforces submission (only the fields we use)
+ */
+public class Submission {
+    private long id;
+    private int contestId;
+    private String problemIndex;
+    private String verdict; // "OK", "WRONG_ANSWER", ... or null while testing
+    private long creationTimeSeconds;
+
+    public Submission() {
+    }
+
+    public Submission(long id, int contestId, String problemIndex, String verdict, long creationTimeSeconds) {
+        this.id = id;
+        this.contestId = contestId;
+        this.problemIndex = problemIndex;
+        this.verdict = verdict;
+        this.creationTimeSeconds = creationTimeSeconds;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getContestId() {
+        return contestId;
+    }
+
+    public void setContestId(int contestId) {
+        this.contestId = contestId;
+    }
+
+    public String getProblemIndex() {
+        return problemIndex;
+    }
+
+    public void setProblemIndex(String problemIndex) {
+        this.problemIndex = problemIndex;
+    }
+
+    public String getVerdict() {
+        return verdict;
+    }
+
+    public void setVerdict(String verdict) {
+        this.verdict = verdict;
+    }
+
+    public long getCreationTimeSeconds() {
+        return creationTimeSeconds;
+    }
+
+    public void setCreationTimeSeconds(long creationTimeSeconds) {
+        this.creationTimeSeconds = creationTimeSeconds;
+    }
+
+    public boolean isAccepted() {
+        return "OK".equals(verdict);
+    }
+
+    /**
+     * A submission is final once it has a verdict other than TESTING
+     */
+    public boolean isFinal() {
+        return verdict != null && !"TESTING".equals(verdict);
+    }
+}
@@ -17,6 +17,8 @@ public class Target {
     private String status; // "pending", "achieved", "failed"
     private Integer rating; // Problem rating (difficulty)
     private boolean archived; // Soft delete status
+    private long version; // Local change stamp for delta sync
+    private long updatedAt; // Last change in epoch millis (for downloads, the cloud copy's)
 
     public boolean isArchived() {
         return archived;
@@ -26,6 +28,22 @@ public class Target {
         this.archived = archived;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public LocalDateTime getDeadline() {
         return deadline;
     }
@@ -0,0 +1,479 @@
+package com.icpx.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.MalformedChunkCodingException;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Schedules all Codeforces API calls over one shared, pooled HTTP client.
+ * Requests pass through a token bucket (Codeforces allows roughly one call every
+ * 2 seconds) and identical in-flight requests are coalesced into a single call.
+ * Transient failures (429, 5xx, "Call limit exceeded", network errors) are retried with
+ * jittered exponential backoff, and a circuit breaker stops calls while Codeforces is degraded.
+ */
+public class ApiRequestScheduler {
+
+    private static final int DEFAULT_BURST = 1;
+    private static final long DEFAULT_INTERVAL_MILLIS = 2000;
+
+    // Retry and circuit breaker settings
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 8000;
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MILLIS = 30_000;
+
+    private static final ApiRequestScheduler shared =
+        new ApiRequestScheduler(createDefaultClient(), DEFAULT_BURST, DEFAULT_INTERVAL_MILLIS);
+
+    private final CloseableHttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Result handed to coalesced callers when the caller sending the request was cancelled
+    private static final Object LEADER_CANCELLED = new Object();
+
+    // Token bucket; the fair lock makes waiting callers take tokens in arrival order
+    private final ReentrantLock permitLock = new ReentrantLock(true);
+    private final int burst;
+    private final long refillIntervalNanos;
+    private double tokens;
+    private long lastRefillNanos;
+
+    // Metrics
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong retriedRequests = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private volatile long lastLatencyNanos;
+
+    /**
+     * Parses a successful response body. Parsers must be stateless: callers coalesced
+     * onto the same request share the result of the first caller's parser.
+     */
+    public interface ResponseParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    public static ApiRequestScheduler getShared() {
+        return shared;
+    }
+
+    /**
+     * @param httpClient Client used for all requests
+     * @param burst Number of requests that may be sent back to back
+     * @param refillIntervalMillis Time to earn one more request
+     */
+    public ApiRequestScheduler(CloseableHttpClient httpClient, int burst, long refillIntervalMillis) {
+        this(httpClient, burst, refillIntervalMillis, new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MILLIS));
+    }
+
+    /**
+     * @param circuitBreaker Breaker guarding every request sent by this scheduler
+     */
+    public ApiRequestScheduler(CloseableHttpClient httpClient, int burst, long refillIntervalMillis,
+                               CircuitBreaker circuitBreaker) {
+        this.httpClient = httpClient;
+        this.circuitBreaker = circuitBreaker;
+        this.burst = burst;
+        this.refillIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillIntervalMillis);
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Pooled client with keep-alive. Gzip is on by default in HttpClientBuilder:
+     * it sends Accept-Encoding and transparently decompresses responses.
+     */
+    public static CloseableHttpClient createDefaultClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(8);
+        connectionManager.setDefaultMaxPerRoute(4);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(10000)
+            .setSocketTimeout(30000)
+            .setConnectionRequestTimeout(10000)
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictIdleConnections(60, TimeUnit.SECONDS)
+            .setUserAgent("icpX")
+            .build();
+    }
+
+    /**
+     * Handles the outcome of a conditional request
+     */
+    public interface ConditionalHandler<T> {
+        /** The server answered 304 Not Modified */
+        T notModified() throws IOException;
+
+        /** The server sent a new body, with its validators (may be null) */
+        T modified(InputStream body, String etag, String lastModified) throws IOException;
+    }
+
+    /**
+     * Reads a successful (200 or 304) response
+     */
+    private interface ResponseReader<T> {
+        T read(CloseableHttpResponse response) throws IOException;
+    }
+
+    /**
+     * Execute a GET request and parse the body.
+     * If an identical request (same URL and parser) is already in flight, waits for its result instead.
+     */
+    public <T> T execute(String url, ResponseParser<T> parser) throws IOException {
+        return coalesce(url + "#" + parser.getClass().getName(), new HttpGet(url), response -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new IOException("Empty response from Codeforces");
+            }
+            try (InputStream body = entity.getContent()) {
+                return parser.parse(body);
+            }
+        });
+    }
+
+    /**
+     * Execute a GET request with If-None-Match / If-Modified-Since validators (either may be null)
+     */
+    public <T> T executeConditional(String url, String etag, String lastModified, ConditionalHandler<T> handler) throws IOException {
+        HttpGet request = new HttpGet(url);
+        if (etag != null) {
+            request.setHeader("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.setHeader("If-Modified-Since", lastModified);
+        }
+
+        return coalesce(url + "#" + handler.getClass().getName(), request, response -> {
+            if (response.getStatusLine().getStatusCode() == 304) {
+                return handler.notModified();
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new IOException("Empty response from Codeforces");
+            }
+            try (InputStream body = entity.getContent()) {
+                return handler.modified(body, headerValue(response, "ETag"), headerValue(response, "Last-Modified"));
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(String key, HttpGet request, ResponseReader<T> reader) throws IOException {
+        while (true) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+            if (existing != null) {
+                coalescedRequests.incrementAndGet();
+                Object result = await(existing);
+                if (result == LEADER_CANCELLED) {
+                    // The caller sending the request was cancelled, so send it again
+                    continue;
+                }
+                return (T) result;
+            }
+
+            try {
+                T result = send(request, reader);
+                inFlight.remove(key, future);
+                future.complete(result);
+                return result;
+            } catch (IOException e) {
+                inFlight.remove(key, future);
+                // A cancelled caller's interrupt is not a failure for the callers waiting on it
+                if (isCancellation(e)) {
+                    future.complete(LEADER_CANCELLED);
+                } else {
+                    future.completeExceptionally(e);
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                inFlight.remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static String headerValue(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    private Object await(CompletableFuture<Object> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Codeforces response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Send a request, retrying transient failures while the circuit breaker allows it
+     */
+    private <T> T send(HttpGet request, ResponseReader<T> reader) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                throw new CodeforcesUnavailableException("Codeforces is degraded, retrying in "
+                    + TimeUnit.MILLISECONDS.toSeconds(circuitBreaker.getRetryAfterMillis() + 999) + "s");
+            }
+
+            try {
+                T result = sendOnce(request, reader);
+                circuitBreaker.recordSuccess();
+                return result;
+            } catch (IOException e) {
+                if (isCancellation(e)) {
+                    circuitBreaker.recordIgnored();
+                    throw e;
+                }
+                if (!isTransient(e)) {
+                    if (e instanceof CodeforcesApiException) {
+                        // Codeforces answered (e.g. unknown handle), so it is not degraded
+                        circuitBreaker.recordSuccess();
+                    } else {
+                        // Our own parse or cache error says nothing about Codeforces
+                        circuitBreaker.recordIgnored();
+                    }
+                    throw e;
+                }
+                circuitBreaker.recordFailure();
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new CodeforcesUnavailableException("Codeforces unavailable after " + attempt
+                        + " attempts: " + e.getMessage(), e);
+                }
+                System.err.println("Codeforces request failed (attempt " + attempt + "), retrying: " + e.getMessage());
+                retriedRequests.incrementAndGet();
+                backoff(attempt);
+            } catch (RuntimeException e) {
+                circuitBreaker.recordIgnored();
+                throw e;
+            }
+        }
+    }
+
+    private <T> T sendOnce(HttpGet request, ResponseReader<T> reader) throws IOException {
+        acquirePermit();
+        totalRequests.incrementAndGet();
+        long start = System.nanoTime();
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+
+            if (statusCode != 200 && statusCode != 304) {
+                HttpEntity entity = response.getEntity();
+                String errorBody = entity != null ? EntityUtils.toString(entity) : "";
+                throw new CodeforcesApiException(statusCode, extractComment(errorBody));
+            }
+            return reader.read(response);
+        } catch (IOException | RuntimeException e) {
+            failedRequests.incrementAndGet();
+            throw e;
+        } finally {
+            long latency = System.nanoTime() - start;
+            lastLatencyNanos = latency;
+            totalLatencyNanos.addAndGet(latency);
+        }
+    }
+
+    /**
+     * Sleep before the next attempt: exponential backoff with jitter in [delay/2, delay]
+     */
+    private static void backoff(int attempt) throws IOException {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 1));
+        long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        try {
+            TimeUnit.MILLISECONDS.sleep(jittered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off from Codeforces");
+        }
+    }
+
+    /**
+     * Check if a failure is worth retrying: rate limiting, server errors and network problems.
+     * Anything else (a malformed body, a failed cache write) fails the same way every time.
+     */
+    static boolean isTransient(IOException e) {
+        if (e instanceof CodeforcesApiException) {
+            CodeforcesApiException apiError = (CodeforcesApiException) e;
+            int status = apiError.getStatusCode();
+            String comment = apiError.getComment();
+            return status == 429 || status >= 500
+                || (comment != null && comment.contains("Call limit exceeded"));
+        }
+        // SocketException covers refused and reset connections; truncated bodies surface
+        // as closed connections or broken chunks while the parser reads
+        return e instanceof SocketException
+            || e instanceof SocketTimeoutException
+            || e instanceof ConnectTimeoutException
+            || e instanceof UnknownHostException
+            || e instanceof NoHttpResponseException
+            || e instanceof ConnectionClosedException
+            || e instanceof MalformedChunkCodingException;
+    }
+
+    private static boolean isCancellation(IOException e) {
+        // Socket and connect timeouts are InterruptedIOExceptions too, but they are real failures
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        return e instanceof InterruptedIOException
+            && !(e instanceof SocketTimeoutException)
+            && !(e instanceof ConnectTimeoutException);
+    }
+
+    /**
+     * Block until the token bucket allows another request
+     */
+    private void acquirePermit() throws IOException {
+        long waitStart = System.nanoTime();
+        queueDepth.incrementAndGet();
+        try {
+            permitLock.lockInterruptibly();
+            try {
+                refill();
+                if (tokens < 1) {
+                    long waitNanos = (long) ((1 - tokens) * refillIntervalNanos);
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    refill();
+                }
+                tokens -= 1;
+            } finally {
+                permitLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Codeforces rate limit");
+        } finally {
+            queueDepth.decrementAndGet();
+            totalQueueWaitNanos.addAndGet(System.nanoTime() - waitStart);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (double) (now - lastRefillNanos) / refillIntervalNanos);
+        lastRefillNanos = now;
+    }
+
+    private static String extractComment(String body) {
+        try {
+            JsonElement element = JsonParser.parseString(body);
+            if (element.isJsonObject()) {
+                JsonObject json = element.getAsJsonObject();
+                if (json.has("comment")) {
+                    return json.get("comment").getAsString();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Not JSON (e.g. an HTML error page)
+        }
+        return body.isEmpty() ? "No error details" : body;
+    }
+
+    /**
+     * Snapshot of scheduler metrics
+     */
+    public Stats getStats() {
+        long requests = totalRequests.get();
+        return new Stats(
+            queueDepth.get(),
+            inFlight.size(),
+            requests,
+            coalescedRequests.get(),
+            failedRequests.get(),
+            retriedRequests.get(),
+            requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / requests),
+            TimeUnit.NANOSECONDS.toMillis(lastLatencyNanos),
+            requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get() / requests)
+        );
+    }
+
+    /**
+     * Inner class to hold a snapshot of scheduler metrics
+     */
+    public static class Stats {
+        public final int queueDepth;
+        public final int inFlight;
+        public final long totalRequests;
+        public final long coalescedRequests;
+        public final long failedRequests;
+        public final long retriedRequests;
+        public final long averageLatencyMillis;
+        public final long lastLatencyMillis;
+        public final long averageQueueWaitMillis;
+
+        public Stats(int queueDepth, int inFlight, long totalRequests, long coalescedRequests, long failedRequests,
+                     long retriedRequests, long averageLatencyMillis, long lastLatencyMillis, long averageQueueWaitMillis) {
+            this.queueDepth = queueDepth;
+            this.inFlight = inFlight;
+            this.totalRequests = totalRequests;
+            this.coalescedRequests = coalescedRequests;
+            this.failedRequests = failedRequests;
+            this.retriedRequests = retriedRequests;
+            this.averageLatencyMillis = averageLatencyMillis;
+            this.lastLatencyMillis = lastLatencyMillis;
+            this.averageQueueWaitMillis = averageQueueWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queue=%d, inFlight=%d, requests=%d, coalesced=%d, failed=%d, retried=%d, avgLatency=%dms, lastLatency=%dms, avgWait=%dms",
+                queueDepth, inFlight, totalRequests, coalescedRequests, failedRequests, retriedRequests,
+                averageLatencyMillis, lastLatencyMillis, averageQueueWaitMillis);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.icpx.service;
+
+import com.icpx.model.Contest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CompletableFuture-based facade over CodeforcesService.
+ * Calls run on a small bounded pool of daemon threads (the app targets Java 11, so no virtual threads),
+ * each with a timeout. Identical concurrent calls share one execution, which is only
+ * cancelled once every caller has cancelled.
+ */
+public class AsyncCodeforcesService {
+
+    private static final int MAX_CONCURRENT_CALLS = 4;
+    private static final long DEFAULT_TIMEOUT_SECONDS = 60;
+    // Verification and activity may page through a whole submission history
+    private static final long LONG_TIMEOUT_SECONDS = 180;
+
+    private static AsyncCodeforcesService instance;
+
+    private final CodeforcesService codeforcesService;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, SharedCall<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * A blocking call to run on the pool
+     */
+    public interface BlockingCall<T> {
+        T call() throws Exception;
+    }
+
+    public static synchronized AsyncCodeforcesService getInstance() {
+        if (instance == null) {
+            instance = new AsyncCodeforcesService(new CodeforcesService(), MAX_CONCURRENT_CALLS);
+        }
+        return instance;
+    }
+
+    /**
+     * @param codeforcesService Blocking service the calls delegate to
+     * @param maxConcurrentCalls Number of calls that may run at once; the rest queue
+     */
+    public AsyncCodeforcesService(CodeforcesService codeforcesService, int maxConcurrentCalls) {
+        this.codeforcesService = codeforcesService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "codeforces-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    public CodeforcesService getCodeforcesService() {
+        return codeforcesService;
+    }
+
+    public CompletableFuture<List<Contest>> fetchContests(boolean gym, boolean revalidate) {
+        return submit("contests:" + gym + ":" + revalidate, DEFAULT_TIMEOUT_SECONDS,
+            () -> codeforcesService.fetchContests(gym, revalidate));
+    }
+
+    public CompletableFuture<List<CodeforcesService.ContestProblem>> fetchContestProblems(String contestId) {
+        return submit("contestProblems:" + contestId, DEFAULT_TIMEOUT_SECONDS,
+            () -> codeforcesService.fetchContestProblems(contestId));
+    }
+
+    public CompletableFuture<Boolean> checkProblemAccepted(String handle, String problemUrl) {
+        return submit("accepted:" + handle + ":" + problemUrl, LONG_TIMEOUT_SECONDS,
+            () -> codeforcesService.checkProblemAccepted(handle, problemUrl));
+    }
+
+    public CompletableFuture<Map<LocalDate, Integer>> fetchSubmissionActivity(String handle) {
+        return submit("activity:" + handle, LONG_TIMEOUT_SECONDS,
+            () -> codeforcesService.fetchSubmissionActivity(handle));
+    }
+
+    public CompletableFuture<TargetVerificationService.VerificationResult> verifyPendingTargets(String handle) {
+        return submit("verify:" + handle, LONG_TIMEOUT_SECONDS,
+            () -> new TargetVerificationService(codeforcesService).verifyPendingTargets(handle));
+    }
+
+    /**
+     * Run a blocking call on the pool
+     * @param key Deduplication key; concurrent calls with the same key share one execution
+     * @param timeoutSeconds The returned future fails with a TimeoutException after this long
+     */
+    public <T> CompletableFuture<T> submit(String key, long timeoutSeconds, BlockingCall<T> call) {
+        while (true) {
+            @SuppressWarnings("unchecked")
+            SharedCall<T> shared = (SharedCall<T>) inFlight.get(key);
+            if (shared == null) {
+                SharedCall<T> created = new SharedCall<>();
+                if (inFlight.putIfAbsent(key, created) != null) {
+                    continue;
+                }
+                start(key, created, timeoutSeconds, call);
+                shared = created;
+            }
+            CompletableFuture<T> subscription = shared.subscribe();
+            if (subscription != null) {
+                return subscription;
+            }
+            // The shared call finished or was cancelled between lookup and subscribe; retry
+            inFlight.remove(key, shared);
+        }
+    }
+
+    private <T> void start(String key, SharedCall<T> shared, long timeoutSeconds, BlockingCall<T> call) {
+        shared.result.whenComplete((result, error) -> inFlight.remove(key, shared));
+        shared.task = executor.submit(() -> {
+            if (shared.result.isDone()) {
+                return;
+            }
+            try {
+                shared.result.complete(call.call());
+            } catch (Throwable e) {
+                shared.result.completeExceptionally(e);
+            }
+        });
+        shared.result
+            .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .whenComplete((result, error) -> {
+                if (error instanceof TimeoutException) {
+                    shared.cancelTask();
+                }
+            });
+    }
+
+    /**
+     * One execution shared by every concurrent caller with the same key
+     */
+    private static class SharedCall<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        volatile Future<?> task;
+        private int subscribers;
+
+        /**
+         * @return A caller-owned future, or null if this call can no longer be joined
+         */
+        synchronized CompletableFuture<T> subscribe() {
+            if (result.isDone()) {
+                return null;
+            }
+            subscribers++;
+            CompletableFuture<T> subscription = new CompletableFuture<>();
+            result.whenComplete((value, error) -> {
+                if (error != null) {
+                    subscription.completeExceptionally(unwrap(error));
+                } else {
+                    subscription.complete(value);
+                }
+            });
+            subscription.whenComplete((value, error) -> {
+                if (subscription.isCancelled()) {
+                    unsubscribe();
+                }
+            });
+            return subscription;
+        }
+
+        private synchronized void unsubscribe() {
+            if (--subscribers == 0 && !result.isDone()) {
+                result.completeExceptionally(new CancellationException("All callers cancelled"));
+                cancelTask();
+            }
+        }
+
+        void cancelTask() {
+            Future<?> current = task;
+            if (current != null) {
+                // Interrupts rate-limit waits; the result is already settled either way
+                current.cancel(true);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof java.util.concurrent.CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Human-readable message for a failed call
+     */
+    public static String describeError(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            return "Codeforces did not respond in time";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+}
@@ -84,15 +84,7 @@ public class AuthService {
     private static void syncUserProfileOnStartup() {
         if (!isAuthenticated()) return;
         
-        new Thread(() -> {
-            try {
-                // Get current rating
-                double rating = com.icpx.database.SettingsDAO.getUserRating();
-                FriendsService.syncUserRatingToFirebase(rating);
-            } catch (Exception e) {
-                System.err.println("Error syncing profile on startup: " + e.getMessage());
-            }
-        }).start();
+        FriendsService.requestRatingSync(com.icpx.database.SettingsDAO.getUserRating());
     }
     
     /**
@@ -0,0 +1,133 @@
+package com.icpx.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker for the Codeforces API.
+ * Opens after a run of consecutive failures so we stop hammering a degraded API,
+ * then lets a single trial request through once the open period has passed.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        /** Requests flow normally */
+        CLOSED,
+        /** Requests are rejected without being sent */
+        OPEN,
+        /** One trial request is allowed to decide whether to close again */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold Consecutive failures that open the breaker
+     * @param openMillis How long to reject requests before allowing a trial
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Check whether a request may be sent now
+     */
+    public boolean allowRequest() {
+        State changed = null;
+        synchronized (this) {
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+                changed = state;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            } else if (state == State.OPEN) {
+                return false;
+            }
+        }
+        notifyListeners(changed);
+        return true;
+    }
+
+    public void recordSuccess() {
+        State changed = null;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            if (state != State.CLOSED) {
+                state = State.CLOSED;
+                changed = state;
+            }
+        }
+        notifyListeners(changed);
+    }
+
+    public void recordFailure() {
+        State changed = null;
+        synchronized (this) {
+            consecutiveFailures++;
+            trialInFlight = false;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+                changed = state;
+            }
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * The request ended without telling us anything about the API (e.g. it was cancelled)
+     */
+    public synchronized void recordIgnored() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Milliseconds until an open breaker allows a trial request (0 if not open)
+     */
+    public synchronized long getRetryAfterMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openMillis - (System.currentTimeMillis() - openedAt));
+    }
+
+    /**
+     * Listen for state changes; called on the thread that caused the change
+     */
+    public void addStateListener(Consumer<State> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeStateListener(Consumer<State> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(State changed) {
+        if (changed == null) {
+            return;
+        }
+        System.out.println("Codeforces circuit breaker is now " + changed);
+        for (Consumer<State> listener : listeners) {
+            listener.accept(changed);
+        }
+    }
+}
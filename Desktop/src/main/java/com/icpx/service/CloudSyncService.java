@@ -0,0 +1,581 @@
+package com.icpx.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.icpx.database.SettingsDAO;
+import com.icpx.database.SyncStateDAO;
+import com.icpx.database.TargetDAO;
+import com.icpx.model.Target;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads local data to the cloud and downloads target changes from it.
+ * Path: users/{uid}/targets, history and daily_activity
+ *
+ * The upload phases are independent and run at the same time. Their batches share
+ * one commit pipeline that keeps a bounded number of commits outstanding.
+ * Documents whose content hash matches the one recorded in sync_state after their last
+ * upload are not sent again.
+ */
+public class CloudSyncService {
+
+    // Firestore allows 500 writes per batch
+    private static final int BATCH_SIZE = 400;
+    private static final int MAX_COMMITS_IN_FLIGHT = 4;
+    private static final int COMMIT_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
+
+    // Nulls are kept, so a cleared field changes the hash
+    private static final Gson hashGson = new GsonBuilder().serializeNulls().create();
+
+    private static final ExecutorService phaseExecutor = Executors.newFixedThreadPool(4, r -> {
+        Thread thread = new Thread(r, "cloud-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Hashes are written here rather than on the backend's callback thread, and never on
+    // phaseExecutor, whose threads may all be blocked waiting for these very writes
+    private static final ExecutorService syncStateExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cloud-sync-state");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SyncBackend backend;
+    private final String uid;
+    private final Semaphore commitPermits;
+    // Documents left out of the current upload because the cloud already has their content
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public CloudSyncService(SyncBackend backend, String uid) {
+        this(backend, uid, MAX_COMMITS_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxCommitsInFlight Batch commits allowed to be outstanding at once (1 commits serially)
+     */
+    public CloudSyncService(SyncBackend backend, String uid, int maxCommitsInFlight) {
+        this.backend = backend;
+        this.uid = uid;
+        this.commitPermits = new Semaphore(maxCommitsInFlight);
+    }
+
+    /**
+     * Upload changed targets, history, daily activity and all time stats
+     * @return documents written and how long it took
+     */
+    public SyncReport upload() throws Exception {
+        long start = System.nanoTime();
+        skipped.set(0);
+
+        CompletableFuture<Integer> targets = runPhase(this::uploadTargets);
+        CompletableFuture<Integer> history = runPhase(this::uploadHistory);
+        CompletableFuture<Integer> dailyActivity = runPhase(this::uploadDailyActivity);
+        CompletableFuture<Integer> stats = runPhase(this::uploadStats);
+
+        try {
+            CompletableFuture.allOf(targets, history, dailyActivity, stats).join();
+        } catch (CompletionException e) {
+            // Every phase has finished by now; surface one of the failures
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+
+        SettingsDAO.updateLastSyncTime();
+        SyncReport report = new SyncReport(targets.join(), history.join(), dailyActivity.join(), stats.join(),
+                skipped.get(), (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Sync Upload: " + report);
+        return report;
+    }
+
+    /**
+     * Download targets changed in the cloud since the last download
+     * @return number of local targets added or changed
+     */
+    public int download() throws Exception {
+        // After the first download, only documents changed since the newest one we have seen.
+        // The first one reads everything, including documents written before updatedAt existed.
+        long pulledAt = SettingsDAO.getTargetsPulledAt(uid);
+        List<SyncBackend.SyncDocument> documents = backend.queryChangedSince(userPath("targets"), "updatedAt", pulledAt);
+
+        System.out.println("Sync Download: Found " + documents.size() + " changed documents in cloud.");
+
+        List<Target> targets = new ArrayList<>(documents.size());
+        long newestPulledAt = pulledAt;
+        for (SyncBackend.SyncDocument doc : documents) {
+            Target t = new Target();
+            try {
+                t.setId(Integer.parseInt(doc.getString("id")));
+            } catch (NumberFormatException | NullPointerException e) {
+                // Written without our numeric id; matched by problem link only
+            }
+            t.setType(doc.getString("type"));
+            t.setName(doc.getString("name"));
+            t.setProblemLink(doc.getString("problemLink"));
+            t.setTopicName(doc.getString("topicName"));
+            t.setWebsiteUrl(doc.getString("websiteUrl"));
+            t.setStatus(doc.getString("status"));
+            // Uploads write 0 for "no rating"; reading it back as 0 would make every unrated target differ
+            Long rating = doc.getLong("rating");
+            if (rating != null && rating > 0) t.setRating(rating.intValue());
+            Boolean archived = doc.getBoolean("archived");
+            if (archived != null) t.setArchived(archived);
+
+            Long updatedAt = doc.getLong("updatedAt");
+            t.setUpdatedAt(updatedAt != null ? updatedAt / 1000 : System.currentTimeMillis());
+            if (updatedAt != null) {
+                newestPulledAt = Math.max(newestPulledAt, updatedAt);
+            }
+            targets.add(t);
+        }
+
+        // All documents in one transaction; one at a time only if that fails
+        int applied = TargetDAO.mergeTargets(targets);
+        boolean allStored = true;
+        if (applied < 0) {
+            applied = 0;
+            for (Target t : targets) {
+                if (TargetDAO.applySyncedTarget(t, t.getUpdatedAt())) {
+                    applied++;
+                } else {
+                    allStored = false;
+                    System.err.println("Sync: Failed to apply target: " + t.getName());
+                }
+            }
+        }
+
+        // The cloud now holds other content for these documents than any hash recorded on upload,
+        // so a local edit back to that content must be sent again
+        List<String> docIds = new ArrayList<>(documents.size());
+        for (SyncBackend.SyncDocument doc : documents) {
+            docIds.add(doc.id);
+        }
+        SyncStateDAO.deleteHashes(userPath("targets"), docIds);
+
+        // A document that was not stored must be fetched again next time
+        if (allStored && newestPulledAt > pulledAt) {
+            SettingsDAO.setTargetsPulledAt(uid, newestPulledAt);
+        }
+        System.out.println("Download sync complete: " + applied + " targets added or changed");
+        SettingsDAO.updateLastSyncTime();
+        return applied;
+    }
+
+    /**
+     * Upload targets added or edited since the last upload. Local deletes are never pushed:
+     * removing cloud documents lost items created on other devices, so achieved targets
+     * are archived (soft deleted) instead.
+     */
+    private int uploadTargets() throws Exception {
+        long pushedVersion = SettingsDAO.getTargetsPushedVersion(uid);
+        long readVersion = pushedVersion;
+        BatchWriter writer = new BatchWriter(userPath("targets"));
+        List<CompletableFuture<Void>> commits = new ArrayList<>();
+        List<Long> commitVersions = new ArrayList<>();
+
+        List<Target> targets;
+        do {
+            targets = TargetDAO.getTargetsChangedSince(readVersion, BATCH_SIZE);
+            if (targets.isEmpty()) {
+                break;
+            }
+            Map<String, Map<String, Object>> docs = new LinkedHashMap<>();
+            for (Target t : targets) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("id", String.valueOf(t.getId())); // Store as String to match Android
+                data.put("type", t.getType());
+                data.put("name", t.getName());
+                data.put("problemLink", t.getProblemLink()); // camelCase to match Android
+                data.put("topicName", t.getTopicName());
+                data.put("websiteUrl", t.getWebsiteUrl());
+                data.put("status", t.getStatus());
+                data.put("rating", t.getRating() != null ? t.getRating() : 0);
+                data.put("archived", t.isArchived());
+                if (t.getCreatedAt() != null) {
+                    data.put("createdAt", t.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+                // Server time, so downloads on every device can ask for newer documents only
+                data.put("updatedAt", SyncBackend.SERVER_TIMESTAMP);
+
+                docs.put(docIdFor(t), data);
+            }
+            // Edits that end up where they started are not sent again
+            writer.addKnownHashes(SyncStateDAO.getHashes(writer.collection, docs.keySet()));
+            for (Map.Entry<String, Map<String, Object>> doc : docs.entrySet()) {
+                writer.set(doc.getKey(), doc.getValue(), false, contentHash(doc.getValue()));
+            }
+            // One commit per page so each commit covers a known version range
+            CompletableFuture<Void> commit = writer.flush();
+            readVersion = targets.get(targets.size() - 1).getVersion();
+            commits.add(commit != null ? commit : CompletableFuture.completedFuture(null));
+            commitVersions.add(readVersion);
+        } while (targets.size() == BATCH_SIZE);
+
+        // Commits finish in any order; rows come in version order, so the mark only moves
+        // past a page once it and every page before it are stored
+        try {
+            for (int i = 0; i < commits.size(); i++) {
+                commits.get(i).get();
+                pushedVersion = commitVersions.get(i);
+            }
+        } finally {
+            SettingsDAO.setTargetsPushedVersion(uid, pushedVersion);
+        }
+        return writer.written;
+    }
+
+    /**
+     * Sync solved problems history to Firebase subcollection (independent of targets)
+     * Path: users/{uid}/history/{docId}
+     * History documents are never deleted, so the cloud collection is not read first.
+     */
+    private int uploadHistory() throws Exception {
+        Map<String, Map<String, Object>> docs = new LinkedHashMap<>();
+        for (Target t : TargetDAO.getAchievedProblems()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("id", t.getId());
+            entry.put("problem_link", t.getProblemLink());
+            entry.put("name", t.getName());
+            entry.put("rating", t.getRating() != null ? t.getRating() : 0);
+
+            docs.put(docIdFor(t), entry);
+        }
+        return uploadCollection("history", docs);
+    }
+
+    /**
+     * Sync daily activity (heatmap data) to Firebase
+     * Path: users/{uid}/daily_activity/{date}
+     * Matches Android implementation
+     */
+    private int uploadDailyActivity() throws Exception {
+        // Per-day counts are maintained by the database, so this reads one row per day
+        Map<String, Map<String, Object>> docs = new LinkedHashMap<>();
+        for (TargetDAO.DailyActivity day : TargetDAO.getDailyActivity()) {
+            if (day.solved == 0 && day.topics == 0) {
+                continue;
+            }
+            Map<String, Object> activity = new HashMap<>();
+            activity.put("problemCount", day.solved);
+            activity.put("topicCount", day.topics);
+            activity.put("timestamp", System.currentTimeMillis());
+
+            docs.put(day.date.toString(), activity);
+        }
+        return uploadCollection("daily_activity", docs, "timestamp");
+    }
+
+    private int uploadStats() throws Exception {
+        Map<String, Object> statsData = new HashMap<>();
+        statsData.put("all_time_solve", TargetDAO.getTargetCountByStatus("achieved"));
+        statsData.put("all_time_history", TargetDAO.getAchievedStats("problem").count);
+        statsData.put("lastUpdated", System.currentTimeMillis());
+
+        BatchWriter writer = new BatchWriter("users");
+        writer.addKnownHashes(SyncStateDAO.getHashes("users", Collections.singletonList(uid)));
+        writer.set(uid, statsData, true, contentHash(statsData, "lastUpdated"));
+        return writer.await();
+    }
+
+    /**
+     * Merge every local document of a collection into the cloud, skipping ones whose content
+     * was uploaded before. A root hash over all documents is kept at users/{uid}/sync_state/{name};
+     * when it matches the local one, the cloud already has this exact content (from this or
+     * another device) and nothing is written.
+     * @param volatileFields Fields left out of the hashes, like write times
+     */
+    private int uploadCollection(String name, Map<String, Map<String, Object>> docs, String... volatileFields) throws Exception {
+        Map<String, Long> hashes = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> doc : docs.entrySet()) {
+            hashes.put(doc.getKey(), contentHash(doc.getValue(), volatileFields));
+        }
+        String root = rootHash(hashes);
+        String statePath = userPath("sync_state") + "/" + name;
+
+        BatchWriter writer = new BatchWriter(userPath(name));
+        writer.addKnownHashes(SyncStateDAO.getHashes(writer.collection));
+
+        SyncBackend.SyncDocument state = backend.get(statePath);
+        if (state != null && root.equals(state.getString("root"))) {
+            // Already in sync; remember the hashes this device did not know yet
+            Map<String, Long> unknown = new HashMap<>();
+            hashes.forEach((docId, hash) -> {
+                if (!hash.equals(writer.knownHashes.get(docId))) {
+                    unknown.put(docId, hash);
+                }
+            });
+            SyncStateDAO.saveHashes(writer.collection, unknown);
+            skipped.addAndGet(docs.size());
+            return 0;
+        }
+
+        for (Map.Entry<String, Map<String, Object>> doc : docs.entrySet()) {
+            writer.set(doc.getKey(), doc.getValue(), true, hashes.get(doc.getKey()));
+        }
+        int written = writer.await();
+
+        Map<String, Object> stateData = new HashMap<>();
+        stateData.put("root", root);
+        stateData.put("documents", docs.size());
+        stateData.put("updatedAt", SyncBackend.SERVER_TIMESTAMP);
+        backend.set(statePath, stateData, false);
+        return written;
+    }
+
+    private String userPath(String collection) {
+        return "users/" + uid + "/" + collection;
+    }
+
+    private CompletableFuture<Integer> runPhase(SyncPhase phase) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return phase.run();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, phaseExecutor);
+    }
+
+    /**
+     * Use problem_link hash as document ID to prevent duplicates across devices.
+     * If no problem_link, fallback to numeric ID
+     */
+    private static String docIdFor(Target t) {
+        return (t.getProblemLink() != null && !t.getProblemLink().trim().isEmpty())
+            ? generateDocIdFromLink(t.getProblemLink())
+            : String.valueOf(t.getId());
+    }
+
+    /**
+     * Generate a consistent document ID from problem link
+     * Uses hash to create a valid Firestore document ID that's consistent across devices
+     */
+    public static String generateDocIdFromLink(String problemLink) {
+        // Use SHA-256 hash truncated to 20 chars for Firestore doc ID
+        try {
+            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(problemLink.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10; i++) { // 10 bytes = 20 hex chars
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            // Fallback: sanitize the URL to make it a valid doc ID
+            return problemLink.replaceAll("[^a-zA-Z0-9]", "_");
+        }
+    }
+
+    /**
+     * Stable 64-bit hash of a document's content: fields in name order, leaving out
+     * server timestamps and the given volatile fields
+     */
+    static long contentHash(Map<String, Object> data, String... volatileFields) {
+        Map<String, Object> content = new TreeMap<>(data);
+        content.values().removeIf(value -> value == SyncBackend.SERVER_TIMESTAMP);
+        for (String field : volatileFields) {
+            content.remove(field);
+        }
+        byte[] digest = sha256(hashGson.toJson(content));
+        return ByteBuffer.wrap(digest).getLong();
+    }
+
+    /**
+     * Hash over every (document id, content hash) pair in id order, as hex.
+     * Equal roots mean equal document sets with equal content.
+     */
+    static String rootHash(Map<String, Long> hashes) {
+        StringBuilder sb = new StringBuilder(hashes.size() * 40);
+        for (Map.Entry<String, Long> entry : new TreeMap<>(hashes).entrySet()) {
+            sb.append(entry.getKey()).append(':').append(Long.toHexString(entry.getValue())).append('\n');
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : sha256(sb.toString())) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] sha256(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface SyncPhase {
+        int run() throws Exception;
+    }
+
+    /**
+     * Groups writes into batches and commits them without waiting, blocking only
+     * while the pipeline already has its maximum of commits outstanding.
+     * A failed commit is tried again (with a new batch of the same writes) before giving up,
+     * so one transient error doesn't throw away the whole phase.
+     */
+    private class BatchWriter {
+        final String collection;
+        final Map<String, Long> knownHashes = new HashMap<>();
+        private final List<CompletableFuture<Void>> commits = new ArrayList<>();
+        private List<PendingWrite> writes = new ArrayList<>();
+        private int written;
+
+        BatchWriter(String collection) {
+            this.collection = collection;
+        }
+
+        void addKnownHashes(Map<String, Long> hashes) {
+            knownHashes.putAll(hashes);
+        }
+
+        /**
+         * Queue a document unless the cloud already has this content
+         */
+        void set(String docId, Map<String, Object> data, boolean merge, long hash) throws InterruptedException {
+            Long known = knownHashes.get(docId);
+            if (known != null && known == hash) {
+                skipped.incrementAndGet();
+                return;
+            }
+            if (writes.size() >= BATCH_SIZE) {
+                flush();
+            }
+            writes.add(new PendingWrite(docId, data, merge, hash));
+            written++;
+        }
+
+        CompletableFuture<Void> flush() throws InterruptedException {
+            if (writes.isEmpty()) {
+                return null;
+            }
+            List<PendingWrite> batchWrites = writes;
+            writes = new ArrayList<>();
+
+            commitPermits.acquire();
+            CompletableFuture<Void> commit = new CompletableFuture<>();
+            commitWithRetry(batchWrites, 1, commit);
+            // The permit is held until the batch is stored or has failed every attempt;
+            // only then does the cloud hold this content, so the hashes are recorded after that
+            CompletableFuture<Void> recorded = commit
+                .whenComplete((result, error) -> commitPermits.release())
+                .thenRunAsync(() -> {
+                    Map<String, Long> stored = new HashMap<>();
+                    for (PendingWrite write : batchWrites) {
+                        stored.put(write.docId, write.hash);
+                    }
+                    SyncStateDAO.saveHashes(collection, stored);
+                }, syncStateExecutor);
+            commits.add(recorded);
+            return recorded;
+        }
+
+        private void commitWithRetry(List<PendingWrite> batchWrites, int attempt, CompletableFuture<Void> done) {
+            CompletableFuture<Void> commit;
+            try {
+                SyncBackend.Batch batch = backend.batch();
+                for (PendingWrite write : batchWrites) {
+                    batch.set(collection + "/" + write.docId, write.data, write.merge);
+                }
+                commit = batch.commit();
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+                return;
+            }
+            commit.whenComplete((result, error) -> {
+                if (error == null) {
+                    done.complete(null);
+                } else if (attempt >= COMMIT_ATTEMPTS) {
+                    done.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                } else {
+                    System.err.println("Sync: Batch commit failed (attempt " + attempt + "), retrying: " + error.getMessage());
+                    Executor delayed = CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS << (attempt - 1), TimeUnit.MILLISECONDS);
+                    delayed.execute(() -> commitWithRetry(batchWrites, attempt + 1, done));
+                }
+            });
+        }
+
+        /**
+         * Commit what is left and wait for every commit of this writer
+         * @return number of documents written
+         */
+        int await() throws InterruptedException, ExecutionException {
+            flush();
+            for (CompletableFuture<Void> commit : commits) {
+                commit.get();
+            }
+            return written;
+        }
+    }
+
+    private static class PendingWrite {
+        final String docId;
+        final Map<String, Object> data;
+        final boolean merge;
+        final long hash;
+
+        PendingWrite(String docId, Map<String, Object> data, boolean merge, long hash) {
+            this.docId = docId;
+            this.data = data;
+            this.merge = merge;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Inner class to hold the outcome of an upload
+     */
+    public static class SyncReport {
+        public final int targets;
+        public final int history;
+        public final int dailyActivity;
+        public final int stats;
+        public final int skipped;
+        public final long durationMillis;
+
+        public SyncReport(int targets, int history, int dailyActivity, int stats, int skipped, long durationMillis) {
+            this.targets = targets;
+            this.history = history;
+            this.dailyActivity = dailyActivity;
+            this.stats = stats;
+            this.skipped = skipped;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getDocuments() {
+            return targets + history + dailyActivity + stats;
+        }
+
+        public double getDocsPerSecond() {
+            return durationMillis > 0 ? getDocuments() * 1000.0 / durationMillis : getDocuments();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d documents (%d targets, %d history, %d days), %d unchanged skipped, in %d ms, %.0f docs/s",
+                    getDocuments(), targets, history, dailyActivity, skipped, durationMillis, getDocsPerSecond());
+        }
+    }
+}
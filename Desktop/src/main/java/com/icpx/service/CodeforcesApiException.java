@@ -0,0 +1,34 @@
+package com.icpx.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the Codeforces API answers with a non-200 status or a FAILED result
+ */
+public class CodeforcesApiException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String comment;
+
+    public CodeforcesApiException(int statusCode, String comment) {
+        super("Codeforces API error (status " + statusCode + "): " + comment);
+        this.statusCode = statusCode;
+        this.comment = comment;
+    }
+
+    /**
+     * HTTP status code of the response (200 for a FAILED result in a 200 response)
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * The "comment" field Codeforces sends with failed calls
+     */
+    public String getComment() {
+        return comment;
+    }
+}
@@ -0,0 +1,260 @@
+package com.icpx.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.icpx.model.Contest;
+import com.icpx.model.Submission;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parsers for Codeforces API responses.
+ * Reads the response body token by token and keeps only the fields the app uses,
+ * so large results (full submission histories, the problemset) never exist as a String or a JSON tree.
+ */
+public final class CodeforcesJsonParser {
+
+    private CodeforcesJsonParser() {
+    }
+
+    /**
+     * Reads the "result" value of an API response
+     */
+    private interface ResultReader<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Parse a user.status response
+     */
+    public static List<Submission> parseSubmissions(InputStream body) throws IOException {
+        return parseResponse(body, reader -> {
+            List<Submission> submissions = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                submissions.add(readSubmission(reader));
+            }
+            reader.endArray();
+            return submissions;
+        });
+    }
+
+    /**
+     * Parse a problemset.problems response
+     */
+    public static List<CodeforcesService.ProblemsetProblem> parseProblemset(InputStream body) throws IOException {
+        return parseResponse(body, reader -> {
+            List<CodeforcesService.ProblemsetProblem> problems = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"problems".equals(reader.nextName())) {
+                    // problemStatistics is not used
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    ProblemFields problem = readProblem(reader);
+                    if (problem.contestId != null && problem.index != null) {
+                        String name = problem.name != null ? problem.name : "Unknown Problem";
+                        problems.add(new CodeforcesService.ProblemsetProblem(problem.contestId, problem.index, name, problem.rating));
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+            return problems;
+        });
+    }
+
+    /**
+     * Parse the problems of a contest.standings response
+     */
+    public static List<CodeforcesService.ContestProblem> parseContestProblems(InputStream body) throws IOException {
+        return parseResponse(body, reader -> {
+            List<CodeforcesService.ContestProblem> problems = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"problems".equals(reader.nextName())) {
+                    // contest and rows are not used
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    ProblemFields problem = readProblem(reader);
+                    if (problem.contestId != null && problem.index != null && problem.name != null) {
+                        problems.add(new CodeforcesService.ContestProblem(String.valueOf(problem.contestId), problem.index, problem.name));
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+            return problems;
+        });
+    }
+
+    /**
+     * Parse a contest.list response
+     */
+    public static List<Contest> parseContests(InputStream body) throws IOException {
+        return parseResponse(body, reader -> {
+            List<Contest> contests = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                contests.add(readContest(reader));
+            }
+            reader.endArray();
+            return contests;
+        });
+    }
+
+    private static <T> T parseResponse(InputStream body, ResultReader<T> resultReader) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String status = null;
+        String comment = null;
+        T result = null;
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("status".equals(name)) {
+                    status = reader.nextString();
+                } else if ("comment".equals(name)) {
+                    comment = reader.nextString();
+                } else if ("result".equals(name) && reader.peek() != JsonToken.NULL) {
+                    result = resultReader.read(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed response from Codeforces", e);
+        }
+
+        if (!"OK".equals(status)) {
+            throw new CodeforcesApiException(200, comment != null ? comment : "Unknown error");
+        }
+        if (result == null) {
+            throw new IOException("Codeforces response has no result");
+        }
+        return result;
+    }
+
+    private static Submission readSubmission(JsonReader reader) throws IOException {
+        Submission submission = new Submission();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    submission.setId(reader.nextLong());
+                    break;
+                case "creationTimeSeconds":
+                    submission.setCreationTimeSeconds(reader.nextLong());
+                    break;
+                case "verdict":
+                    submission.setVerdict(nextStringOrNull(reader));
+                    break;
+                case "problem":
+                    ProblemFields problem = readProblem(reader);
+                    if (problem.contestId != null) {
+                        submission.setContestId(problem.contestId);
+                    }
+                    submission.setProblemIndex(problem.index);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return submission;
+    }
+
+    private static Contest readContest(JsonReader reader) throws IOException {
+        Contest contest = new Contest();
+        contest.setType("");
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    contest.setId(reader.nextInt());
+                    break;
+                case "name":
+                    contest.setName(reader.nextString());
+                    break;
+                case "type":
+                    contest.setType(reader.nextString());
+                    break;
+                case "phase":
+                    contest.setPhase(reader.nextString());
+                    break;
+                case "frozen":
+                    contest.setFrozen(reader.nextBoolean());
+                    break;
+                case "durationSeconds":
+                    contest.setDurationSeconds(reader.nextLong());
+                    break;
+                case "startTimeSeconds":
+                    contest.setStartTimeSeconds(reader.nextLong());
+                    break;
+                case "relativeTimeSeconds":
+                    contest.setRelativeTimeSeconds(reader.nextLong());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return contest;
+    }
+
+    /**
+     * Fields of a Problem object; tags, points and type are skipped
+     */
+    private static class ProblemFields {
+        Integer contestId;
+        String index;
+        String name;
+        Integer rating;
+    }
+
+    private static ProblemFields readProblem(JsonReader reader) throws IOException {
+        ProblemFields problem = new ProblemFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "contestId":
+                    problem.contestId = reader.nextInt();
+                    break;
+                case "index":
+                    problem.index = reader.nextString();
+                    break;
+                case "name":
+                    problem.name = reader.nextString();
+                    break;
+                case "rating":
+                    problem.rating = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return problem;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -1,29 +1,61 @@
 package com.icpx.service;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.icpx.database.SubmissionDAO;
 import com.icpx.model.Contest;
-import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import com.icpx.model.ProblemKey;
+import com.icpx.model.Submission;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Service for interacting with Codeforces API
  */
 public class CodeforcesService {
 
-    private static final String CODEFORCES_API_URL = "https://codeforces.com/api";
+    // Override with -Dicpx.codeforces.apiUrl=http://localhost:8089/api to use a local stub server
+    private static final String CODEFORCES_API_URL = System.getProperty("icpx.codeforces.apiUrl", "https://codeforces.com/api");
+    private static final int INCREMENTAL_PAGE_SIZE = 50;
+    private static final int FULL_SYNC_PAGE_SIZE = 1000;
+
+    // Disk cache TTLs per endpoint
+    private static final long CONTEST_LIST_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final long GYM_CONTEST_LIST_TTL_MILLIS = 12 * 60 * 60 * 1000L;
+    private static final long CONTEST_PROBLEMS_TTL_MILLIS = 6 * 60 * 60 * 1000L;
+
+    private final ApiRequestScheduler scheduler;
+    private final String apiBaseUrl;
+    private final ResponseCache responseCache;
+
+    public CodeforcesService() {
+        this(ApiRequestScheduler.getShared(), CODEFORCES_API_URL, ResponseCache.getInstance());
+    }
+
+    /**
+     * @param scheduler Scheduler all API calls go through
+     * @param apiBaseUrl API root, e.g. a local stub server
+     * @param responseCache Disk cache for cacheable endpoints
+     */
+    public CodeforcesService(ApiRequestScheduler scheduler, String apiBaseUrl, ResponseCache responseCache) {
+        this.scheduler = scheduler;
+        this.apiBaseUrl = apiBaseUrl;
+        this.responseCache = responseCache;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return scheduler.getCircuitBreaker();
+    }
+
+    /**
+     * Check if Codeforces is currently considered degraded (circuit breaker not closed)
+     */
+    public boolean isDegraded() {
+        return scheduler.getCircuitBreaker().getState() != CircuitBreaker.State.CLOSED;
+    }
 
     /**
      * Fetch list of contests from Codeforces API
@@ -31,59 +63,113 @@ public class CodeforcesService {
      * @return List of contests
      */
     public List<Contest> fetchContests(boolean gym) throws IOException {
-        String apiUrl = CODEFORCES_API_URL + "/contest.list?gym=" + gym;
-        List<Contest> contests = new ArrayList<>();
-
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(apiUrl);
-            
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode != 200) {
-                    System.err.println("Codeforces API returned status: " + statusCode);
-                    throw new IOException("Failed to fetch contests: status " + statusCode);
+        return fetchContests(gym, false);
+    }
+
+    /**
+     * Fetch list of contests, answering from the disk cache while it is within its TTL
+     * @param gym if true, fetch gym contests; if false, fetch regular contests
+     * @param revalidate if true, ignore the TTL and revalidate with Codeforces (manual refresh)
+     * @return List of contests
+     */
+    public List<Contest> fetchContests(boolean gym, boolean revalidate) throws IOException {
+        return fetchCached(contestListUrl(gym), contestListTtl(gym), revalidate, CodeforcesJsonParser::parseContests);
+    }
+
+    /**
+     * Get contests from the disk cache regardless of their age
+     * @return Cached contests, or null if none are cached
+     */
+    public List<Contest> getCachedContests(boolean gym) {
+        ResponseCache.Entry entry = responseCache.get(contestListUrl(gym));
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return parseEntry(entry, CodeforcesJsonParser::parseContests);
+        } catch (IOException e) {
+            System.err.println("Error reading cached contests: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Check if the cached contest list is still within its TTL
+     */
+    public boolean isContestListFresh(boolean gym) {
+        ResponseCache.Entry entry = responseCache.get(contestListUrl(gym));
+        return entry != null && entry.isFresh(contestListTtl(gym));
+    }
+
+    private String contestListUrl(boolean gym) {
+        return apiBaseUrl + "/contest.list?gym=" + gym;
+    }
+
+    private static long contestListTtl(boolean gym) {
+        // Gym lists are much larger and change far less often
+        return gym ? GYM_CONTEST_LIST_TTL_MILLIS : CONTEST_LIST_TTL_MILLIS;
+    }
+
+    /**
+     * Fetch a cacheable endpoint: served from disk while fresh, otherwise revalidated
+     * with a conditional request and stored again. If Codeforces is unavailable, the
+     * stale cached copy is served instead.
+     */
+    private <T> T fetchCached(String url, long ttlMillis, boolean revalidate,
+                              ApiRequestScheduler.ResponseParser<T> parser) throws IOException {
+        ResponseCache.Entry entry = responseCache.get(url);
+        if (entry != null && !revalidate && entry.isFresh(ttlMillis)) {
+            responseCache.recordHit();
+            return parseEntry(entry, parser);
+        }
+
+        String etag = entry != null ? entry.etag : null;
+        String lastModified = entry != null ? entry.lastModified : null;
+
+        try {
+            return revalidate(url, entry, etag, lastModified, parser);
+        } catch (CodeforcesUnavailableException e) {
+            if (entry == null || !entry.bodyFile.isFile()) {
+                throw e;
+            }
+            System.err.println("Serving stale " + url + ": " + e.getMessage());
+            responseCache.recordHit();
+            return parseEntry(entry, parser);
+        }
+    }
+
+    private <T> T revalidate(String url, ResponseCache.Entry entry, String etag, String lastModified,
+                             ApiRequestScheduler.ResponseParser<T> parser) throws IOException {
+        return scheduler.executeConditional(url, etag, lastModified, new ApiRequestScheduler.ConditionalHandler<T>() {
+            @Override
+            public T notModified() throws IOException {
+                if (entry == null) {
+                    throw new IOException("Unexpected 304 response for " + url);
                 }
+                responseCache.recordHit();
+                return parseEntry(responseCache.touch(url, entry), parser);
+            }
 
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    String jsonString = EntityUtils.toString(entity);
-                    JsonObject jsonResponse = JsonParser.parseString(jsonString).getAsJsonObject();
-                    
-                    if (!"OK".equals(jsonResponse.get("status").getAsString())) {
-                        String errorMsg = jsonResponse.has("comment") ? jsonResponse.get("comment").getAsString() : "Unknown error";
-                        throw new IOException("Codeforces API error: " + errorMsg);
-                    }
-
-                    JsonArray contestsArray = jsonResponse.getAsJsonArray("result");
-                    
-                    for (JsonElement element : contestsArray) {
-                        JsonObject contestJson = element.getAsJsonObject();
-                        Contest contest = new Contest();
-                        
-                        contest.setId(contestJson.get("id").getAsInt());
-                        contest.setName(contestJson.get("name").getAsString());
-                        contest.setType(contestJson.has("type") ? contestJson.get("type").getAsString() : "");
-                        contest.setPhase(contestJson.get("phase").getAsString());
-                        contest.setFrozen(contestJson.has("frozen") && contestJson.get("frozen").getAsBoolean());
-                        contest.setDurationSeconds(contestJson.get("durationSeconds").getAsLong());
-                        
-                        if (contestJson.has("startTimeSeconds")) {
-                            contest.setStartTimeSeconds(contestJson.get("startTimeSeconds").getAsLong());
-                        }
-                        
-                        if (contestJson.has("relativeTimeSeconds")) {
-                            contest.setRelativeTimeSeconds(contestJson.get("relativeTimeSeconds").getAsLong());
-                        }
-                        
-                        contests.add(contest);
-                    }
+            @Override
+            public T modified(InputStream body, String newEtag, String newLastModified) throws IOException {
+                responseCache.recordMiss();
+                ResponseCache.Entry stored = responseCache.store(url, body, newEtag, newLastModified);
+                try {
+                    return parseEntry(stored, parser);
+                } catch (IOException | RuntimeException e) {
+                    // Never keep error responses (e.g. status FAILED) in the cache
+                    responseCache.remove(url);
+                    throw e;
                 }
             }
-        }
-        
-        return contests;
+        });
     }
 
+    private static <T> T parseEntry(ResponseCache.Entry entry, ApiRequestScheduler.ResponseParser<T> parser) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(entry.bodyFile))) {
+            return parser.parse(in);
+        }
+    }
 
     /**
      * Check if a user has accepted a specific problem
@@ -101,154 +187,122 @@ public class CodeforcesService {
         System.out.println("Checking problem: Contest=" + problemInfo.contestId + ", Index=" + problemInfo.index);
         System.out.println("For user handle: " + userId);
 
-        // URL encode the handle to handle special characters
-        String encodedHandle = java.net.URLEncoder.encode(userId.trim(), "UTF-8");
-        
-        // Fetch user submissions (500 is a safe limit for Codeforces API)
-        String apiUrl = String.format("%s/user.status?handle=%s&from=1&count=500", CODEFORCES_API_URL, encodedHandle);
-        System.out.println("API URL: " + apiUrl);
-
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(apiUrl);
-            
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode != 200) {
-                    // Try to get error details from response
-                    HttpEntity errorEntity = response.getEntity();
-                    String errorBody = errorEntity != null ? EntityUtils.toString(errorEntity) : "No error details";
-                    System.err.println("Codeforces API returned status: " + statusCode);
-                    System.err.println("Response body: " + errorBody);
-                    throw new IOException("Codeforces API error (status " + statusCode + "): Check if handle '" + userId + "' is valid");
-                }
+        // Only pulls submissions newer than what is already stored locally
+        boolean synced = syncSubmissionsOrFallBack(userId);
 
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    String jsonString = EntityUtils.toString(entity);
-                    JsonObject jsonResponse = JsonParser.parseString(jsonString).getAsJsonObject();
-                    
-                    if (!"OK".equals(jsonResponse.get("status").getAsString())) {
-                        String errorMsg = jsonResponse.has("comment") ? jsonResponse.get("comment").getAsString() : "Unknown error";
-                        System.err.println("Codeforces API error: " + errorMsg);
-                        throw new IOException("Codeforces API error: " + errorMsg);
-                    }
-
-                    JsonArray submissions = jsonResponse.getAsJsonArray("result");
-                    System.out.println("Found " + submissions.size() + " submissions for user");
-                    
-                    boolean foundProblem = false;
-                    for (JsonElement element : submissions) {
-                        JsonObject submission = element.getAsJsonObject();
-                        JsonObject problem = submission.getAsJsonObject("problem");
-                        
-                        // Check if this submission is for the target problem
-                        if (problem.has("contestId") && problem.has("index")) {
-                            String subContestId = String.valueOf(problem.get("contestId").getAsInt());
-                            String subIndex = problem.get("index").getAsString();
-                            
-                            if (subContestId.equals(problemInfo.contestId) && subIndex.equals(problemInfo.index)) {
-                                foundProblem = true;
-                                String verdict = submission.has("verdict") ? submission.get("verdict").getAsString() : "UNKNOWN";
-                                System.out.println("Found submission for problem with verdict: " + verdict);
-                                
-                                // Check verdict
-                                if ("OK".equals(verdict)) {
-                                    System.out.println("Problem is ACCEPTED!");
-                                    return true;
-                                }
-                            }
-                        }
-                    }
-                    
-                    if (!foundProblem) {
-                        System.out.println("No submissions found for this problem");
-                    }
-                }
-            }
+        boolean accepted = SubmissionDAO.isProblemAccepted(userId, problemInfo.contestId, problemInfo.index);
+        if (!accepted && !synced) {
+            // An accepted verdict may simply not have been synced yet
+            throw new CodeforcesUnavailableException("Codeforces is degraded; could not check for new submissions");
         }
-        
-        return false;
+        System.out.println(accepted ? "Problem is ACCEPTED!" : "No accepted submission found for this problem");
+        return accepted;
     }
 
     /**
-     * Parse Codeforces problem URL to extract contest ID and problem index
+     * Bring the local submissions table up to date for a handle.
+     * Pages user.status from the newest submission back to the newest one already stored.
+     * @param handle Codeforces handle
+     * @return Number of new or updated submissions stored
      */
-    public ProblemInfo parseProblemUrl(String url) {
-        if (url == null || url.isEmpty()) {
-            return null;
+    public int syncSubmissions(String handle) throws IOException {
+        long floorId = SubmissionDAO.getSyncFloorId(handle);
+        // Small first page for incremental syncs, large pages for the initial download
+        int pageSize = floorId > 0 ? INCREMENTAL_PAGE_SIZE : FULL_SYNC_PAGE_SIZE;
+        int from = 1;
+        List<Submission> fresh = new ArrayList<>();
+
+        while (true) {
+            List<Submission> page = fetchSubmissionsPage(handle, from, pageSize);
+            boolean reachedStored = false;
+
+            for (Submission submission : page) {
+                if (submission.getId() <= floorId) {
+                    reachedStored = true;
+                    break;
+                }
+                fresh.add(submission);
+            }
+
+            if (reachedStored || page.size() < pageSize) {
+                break;
+            }
+            from += pageSize;
+            pageSize = FULL_SYNC_PAGE_SIZE;
         }
 
-        // Pattern for contest URL: .../contest/{contestId}/problem/{index}
-        Pattern contestPattern = Pattern.compile("contest/(\\d+)/problem/([A-Z0-9]+)");
-        Matcher contestMatcher = contestPattern.matcher(url);
-        if (contestMatcher.find()) {
-            return new ProblemInfo(contestMatcher.group(1), contestMatcher.group(2));
+        if (!SubmissionDAO.insertSubmissions(handle, fresh)) {
+            throw new IOException("Failed to store submissions locally");
         }
+        System.out.println("Synced " + fresh.size() + " new submissions for " + handle);
+        return fresh.size();
+    }
 
-        // Pattern for problemset URL: .../problemset/problem/{contestId}/{index}
-        Pattern problemsetPattern = Pattern.compile("problemset/problem/(\\d+)/([A-Z0-9]+)");
-        Matcher problemsetMatcher = problemsetPattern.matcher(url);
-        if (problemsetMatcher.find()) {
-            return new ProblemInfo(problemsetMatcher.group(1), problemsetMatcher.group(2));
+    /**
+     * Sync submissions, falling back to the stored ones if Codeforces is unavailable
+     * @return true if synced, false if the local submissions may be stale
+     * @throws CodeforcesUnavailableException if Codeforces is unavailable and nothing is stored yet
+     */
+    public boolean syncSubmissionsOrFallBack(String handle) throws IOException {
+        try {
+            syncSubmissions(handle);
+            return true;
+        } catch (CodeforcesUnavailableException e) {
+            if (SubmissionDAO.getSyncFloorId(handle) <= 0) {
+                throw e;
+            }
+            System.err.println("Using stored submissions for " + handle + ": " + e.getMessage());
+            return false;
         }
-        
-        // Pattern for gym URL: .../gym/{contestId}/problem/{index}
-        Pattern gymPattern = Pattern.compile("gym/(\\d+)/problem/([A-Z0-9]+)");
-        Matcher gymMatcher = gymPattern.matcher(url);
-        if (gymMatcher.find()) {
-            return new ProblemInfo(gymMatcher.group(1), gymMatcher.group(2));
+    }
+
+    /**
+     * Fetch one page of a user's submissions (newest first)
+     */
+    private List<Submission> fetchSubmissionsPage(String handle, int from, int count) throws IOException {
+        // URL encode the handle to handle special characters
+        String encodedHandle = java.net.URLEncoder.encode(handle.trim(), "UTF-8");
+        String apiUrl = String.format("%s/user.status?handle=%s&from=%d&count=%d", apiBaseUrl, encodedHandle, from, count);
+
+        try {
+            return scheduler.execute(apiUrl, CodeforcesJsonParser::parseSubmissions);
+        } catch (CodeforcesApiException e) {
+            System.err.println("Codeforces API error: " + e.getMessage());
+            if (e.getStatusCode() != 200) {
+                throw new CodeforcesApiException(e.getStatusCode(), "Check if handle '" + handle + "' is valid");
+            }
+            throw e;
         }
+    }
 
-        return null;
+    /**
+     * Parse Codeforces problem URL to extract contest ID and problem index
+     */
+    public ProblemInfo parseProblemUrl(String url) {
+        long key = ProblemKey.parseUrl(url);
+        if (key == ProblemKey.NONE) {
+            return null;
+        }
+        return new ProblemInfo(String.valueOf(ProblemKey.contestId(key)), ProblemKey.index(key));
     }
 
     /**
      * Fetch all problems for a specific contest
      */
     public List<ContestProblem> fetchContestProblems(String contestId) throws IOException {
-        String apiUrl = String.format("%s/contest.standings?contestId=%s&from=1&count=1", CODEFORCES_API_URL, contestId);
-        List<ContestProblem> problems = new ArrayList<>();
-
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(apiUrl);
-            
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode != 200) {
-                    System.err.println("Codeforces API returned status: " + statusCode);
-                    return problems;
-                }
+        String apiUrl = String.format("%s/contest.standings?contestId=%s&from=1&count=1", apiBaseUrl, contestId);
 
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    String jsonString = EntityUtils.toString(entity);
-                    JsonObject jsonResponse = JsonParser.parseString(jsonString).getAsJsonObject();
-                    
-                    if (!"OK".equals(jsonResponse.get("status").getAsString())) {
-                        System.err.println("Codeforces API error: " + jsonResponse.get("comment").getAsString());
-                        return problems;
-                    }
-
-                    JsonObject result = jsonResponse.getAsJsonObject("result");
-                    JsonArray problemsArray = result.getAsJsonArray("problems");
-                    
-                    for (JsonElement element : problemsArray) {
-                        JsonObject problemJson = element.getAsJsonObject();
-                        if (problemJson.has("contestId") && problemJson.has("index") && problemJson.has("name")) {
-                            String cId = String.valueOf(problemJson.get("contestId").getAsInt());
-                            String index = problemJson.get("index").getAsString();
-                            String name = problemJson.get("name").getAsString();
-                            problems.add(new ContestProblem(cId, index, name));
-                        }
-                    }
-                }
-            }
+        try {
+            return fetchCached(apiUrl, CONTEST_PROBLEMS_TTL_MILLIS, false, CodeforcesJsonParser::parseContestProblems);
+        } catch (CodeforcesApiException e) {
+            System.err.println(e.getMessage());
+            return new ArrayList<>();
         }
-        return problems;
     }
 
     /**
-     * Fetch problem details (name and rating) from a problem URL
+     * Fetch problem details (name and rating) from a problem URL.
+     * Answered from the local problemset index, so no per-call download.
      */
     public ProblemDetails fetchProblemDetails(String problemUrl) throws IOException {
         ProblemInfo problemInfo = parseProblemUrl(problemUrl);
@@ -256,47 +310,21 @@ public class CodeforcesService {
             throw new IOException("Invalid problem URL format");
         }
 
-        String apiUrl = String.format("%s/problemset.problems", CODEFORCES_API_URL);
+        ProblemDetails details = ProblemsetIndex.getInstance().lookup(problemInfo.contestId, problemInfo.index);
+        if (details == null) {
+            throw new IOException("Problem not found in Codeforces problemset");
+        }
+        return details;
+    }
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(apiUrl);
-            
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode != 200) {
-                    throw new IOException("Codeforces API returned status: " + statusCode);
-                }
+    /**
+     * Download the full Codeforces problemset (used to build the local problemset index)
+     * @return List of all problems with their names and ratings
+     */
+    public List<ProblemsetProblem> fetchProblemset() throws IOException {
+        String apiUrl = String.format("%s/problemset.problems", apiBaseUrl);
 
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    String jsonString = EntityUtils.toString(entity);
-                    JsonObject jsonResponse = JsonParser.parseString(jsonString).getAsJsonObject();
-                    
-                    if (!"OK".equals(jsonResponse.get("status").getAsString())) {
-                        throw new IOException("Codeforces API error: " + jsonResponse.get("comment").getAsString());
-                    }
-
-                    JsonObject result = jsonResponse.getAsJsonObject("result");
-                    JsonArray problemsArray = result.getAsJsonArray("problems");
-                    
-                    for (JsonElement element : problemsArray) {
-                        JsonObject problemJson = element.getAsJsonObject();
-                        if (problemJson.has("contestId") && problemJson.has("index")) {
-                            String cId = String.valueOf(problemJson.get("contestId").getAsInt());
-                            String index = problemJson.get("index").getAsString();
-                            
-                            if (cId.equals(problemInfo.contestId) && index.equals(problemInfo.index)) {
-                                String name = problemJson.has("name") ? problemJson.get("name").getAsString() : "Unknown Problem";
-                                Integer rating = problemJson.has("rating") ? problemJson.get("rating").getAsInt() : null;
-                                return new ProblemDetails(name, rating);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        
-        throw new IOException("Problem not found in Codeforces problemset");
+        return scheduler.execute(apiUrl, CodeforcesJsonParser::parseProblemset);
     }
 
     /**
@@ -344,6 +372,23 @@ public class CodeforcesService {
         }
     }
 
+    /**
+     * Inner class to hold a single problemset.problems entry
+     */
+    public static class ProblemsetProblem {
+        public final int contestId;
+        public final String index;
+        public final String name;
+        public final Integer rating;
+
+        public ProblemsetProblem(int contestId, String index, String name, Integer rating) {
+            this.contestId = contestId;
+            this.index = index;
+            this.name = name;
+            this.rating = rating;
+        }
+    }
+
     /**
      * Fetch rating for a specific Codeforces problem
      * @param contestId Contest ID
@@ -352,42 +397,8 @@ public class CodeforcesService {
      */
     public Integer fetchProblemRating(String contestId, String problemIndex) {
         try {
-            String apiUrl = CODEFORCES_API_URL + "/problemset.problems";
-            
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(apiUrl);
-                
-                try (CloseableHttpResponse response = httpClient.execute(request)) {
-                    if (response.getStatusLine().getStatusCode() != 200) {
-                        return null;
-                    }
-                    
-                    HttpEntity entity = response.getEntity();
-                    if (entity != null) {
-                        String jsonString = EntityUtils.toString(entity);
-                        JsonObject jsonResponse = JsonParser.parseString(jsonString).getAsJsonObject();
-                        
-                        if ("OK".equals(jsonResponse.get("status").getAsString())) {
-                            JsonArray problems = jsonResponse.getAsJsonObject("result").getAsJsonArray("problems");
-                            
-                            for (JsonElement element : problems) {
-                                JsonObject problem = element.getAsJsonObject();
-                                if (problem.has("contestId") && problem.has("index")) {
-                                    int pContestId = problem.get("contestId").getAsInt();
-                                    String pIndex = problem.get("index").getAsString();
-                                    
-                                    if (String.valueOf(pContestId).equals(contestId) && pIndex.equals(problemIndex)) {
-                                        if (problem.has("rating")) {
-                                            return problem.get("rating").getAsInt();
-                                        }
-                                        return null;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            ProblemDetails details = ProblemsetIndex.getInstance().lookup(contestId, problemIndex);
+            return details != null ? details.rating : null;
         } catch (Exception e) {
             System.err.println("Error fetching problem rating: " + e.getMessage());
         }
@@ -404,88 +415,28 @@ public class CodeforcesService {
             return null;
         }
         
-        // Parse URL to extract contest ID and problem index
-        Pattern pattern = Pattern.compile("codeforces\\.com/(?:contest|problemset/problem)/(\\d+)/(?:problem/)?(\\w+)");
-        Matcher matcher = pattern.matcher(problemUrl);
-        
-        if (matcher.find()) {
-            String contestId = matcher.group(1);
-            String problemIndex = matcher.group(2);
-            return fetchProblemRating(contestId, problemIndex);
+        try {
+            long key = ProblemKey.parseUrl(problemUrl);
+            if (key == ProblemKey.NONE) {
+                return null;
+            }
+            ProblemDetails details = ProblemsetIndex.getInstance().lookup(key);
+            return details != null ? details.rating : null;
+        } catch (Exception e) {
+            System.err.println("Error fetching problem rating: " + e.getMessage());
         }
-        
         return null;
     }
 
     /**
      * Fetch user's submission activity for heatmap
-     * Returns a map of date -> number of accepted submissions
+     * Returns a map of date -> number of distinct problems accepted that day
      */
     public java.util.Map<java.time.LocalDate, Integer> fetchSubmissionActivity(String handle) throws IOException {
-        java.util.Map<java.time.LocalDate, Integer> activityMap = new java.util.HashMap<>();
-        
         try {
-            String encodedHandle = java.net.URLEncoder.encode(handle.trim(), "UTF-8");
-            String apiUrl = String.format("%s/user.status?handle=%s&from=1&count=10000", CODEFORCES_API_URL, encodedHandle);
-
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(apiUrl);
-                
-                try (CloseableHttpResponse response = httpClient.execute(request)) {
-                    int statusCode = response.getStatusLine().getStatusCode();
-                    if (statusCode != 200) {
-                        throw new IOException("Failed to fetch submissions: status " + statusCode);
-                    }
-
-                    HttpEntity entity = response.getEntity();
-                    if (entity != null) {
-                        String jsonString = EntityUtils.toString(entity);
-                        JsonObject jsonResponse = JsonParser.parseString(jsonString).getAsJsonObject();
-                        
-                        if (!"OK".equals(jsonResponse.get("status").getAsString())) {
-                            throw new IOException("API error: " + jsonResponse.get("comment").getAsString());
-                        }
-
-                        JsonArray submissions = jsonResponse.getAsJsonArray("result");
-                        
-                        // Track unique problems solved per day (not duplicate submissions)
-                        java.util.Map<java.time.LocalDate, java.util.Set<String>> problemsPerDay = new java.util.HashMap<>();
-                        
-                        for (JsonElement element : submissions) {
-                            JsonObject submission = element.getAsJsonObject();
-                            
-                            // Only count accepted submissions
-                            if (!submission.has("verdict") || !"OK".equals(submission.get("verdict").getAsString())) {
-                                continue;
-                            }
-                            
-                            // Get submission timestamp
-                            long timestamp = submission.get("creationTimeSeconds").getAsLong();
-                            java.time.LocalDate date = java.time.Instant.ofEpochSecond(timestamp)
-                                .atZone(java.time.ZoneId.systemDefault())
-                                .toLocalDate();
-                            
-                            // Get problem identifier
-                            JsonObject problem = submission.getAsJsonObject("problem");
-                            String problemId = "";
-                            if (problem.has("contestId")) {
-                                problemId = problem.get("contestId").getAsInt() + "-";
-                            }
-                            if (problem.has("index")) {
-                                problemId += problem.get("index").getAsString();
-                            }
-                            
-                            // Add to set of problems solved that day
-                            problemsPerDay.computeIfAbsent(date, k -> new java.util.HashSet<>()).add(problemId);
-                        }
-                        
-                        // Convert to count map
-                        for (java.util.Map.Entry<java.time.LocalDate, java.util.Set<String>> entry : problemsPerDay.entrySet()) {
-                            activityMap.put(entry.getKey(), entry.getValue().size());
-                        }
-                    }
-                }
-            }
+            syncSubmissionsOrFallBack(handle);
+        } catch (CodeforcesUnavailableException e) {
+            throw e;
         } catch (java.net.SocketException e) {
             // Re-throw socket exceptions to be handled specially
             throw e;
@@ -495,6 +446,6 @@ public class CodeforcesService {
             throw new IOException("Error fetching activity: " + e.getMessage(), e);
         }
         
-        return activityMap;
+        return SubmissionDAO.getSolvedActivity(handle);
     }
 }
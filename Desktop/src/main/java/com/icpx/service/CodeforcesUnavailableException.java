@@ -0,0 +1,20 @@
+package com.icpx.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown when Codeforces is degraded: retries were exhausted or the circuit breaker is open.
+ * Callers with local or cached data should fall back to it.
+ */
+public class CodeforcesUnavailableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CodeforcesUnavailableException(String message) {
+        super(message);
+    }
+
+    public CodeforcesUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -12,10 +12,13 @@ public class ContestReminderService {
 
     private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     private static final int REMINDER_MINUTES = 30;
+    // Finished contests are kept this long after they end
+    private static final int KEEP_FINISHED_DAYS = 30;
 
     public static void start() {
-        // Run every minute
+        // Reminders every minute, pruning once a day
         scheduler.scheduleAtFixedRate(ContestReminderService::checkReminders, 0, 1, TimeUnit.MINUTES);
+        scheduler.scheduleAtFixedRate(ContestReminderService::pruneContests, 0, 1, TimeUnit.DAYS);
     }
 
     private static void checkReminders() {
@@ -23,26 +26,28 @@ public class ContestReminderService {
             return;
         }
         
-        List<Contest> upcoming = ContestDAO.getUpcomingContests();
         long nowSeconds = Instant.now().getEpochSecond();
+        List<Contest> due = ContestDAO.getContestsDueForReminder(nowSeconds, REMINDER_MINUTES * 60);
         
-        for (Contest contest : upcoming) {
-            long startTime = contest.getStartTimeSeconds();
-            long diffSeconds = startTime - nowSeconds;
-            
-            // If less than REMINDER_MINUTES, show notification
-            if (diffSeconds > 0 && diffSeconds <= REMINDER_MINUTES * 60) {
-                if (!ContestDAO.hasReminderBeenSent(contest.getId())) {
-                    NotificationService.showNotification(
-                        "Contest Reminder",
-                        contest.getName() + " is starting in " + (diffSeconds / 60) + " minutes!"
-                    );
-                    ContestDAO.markReminderSent(contest.getId());
-                }
+        for (Contest contest : due) {
+            // Mark first so a reminder is never shown twice
+            if (ContestDAO.markReminderSent(contest.getId())) {
+                long diffSeconds = contest.getStartTimeSeconds() - nowSeconds;
+                NotificationService.showNotification(
+                    "Contest Reminder",
+                    contest.getName() + " is starting in " + (diffSeconds / 60) + " minutes!"
+                );
             }
         }
     }
 
+    private static void pruneContests() {
+        int deleted = ContestDAO.pruneFinishedContests(KEEP_FINISHED_DAYS);
+        if (deleted > 0) {
+            System.out.println("Pruned " + deleted + " finished contests");
+        }
+    }
+
     public static void stop() {
         scheduler.shutdown();
     }
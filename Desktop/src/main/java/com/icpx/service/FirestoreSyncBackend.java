@@ -0,0 +1,117 @@
+package com.icpx.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sync backend for Cloud Firestore through the Admin SDK
+ */
+public class FirestoreSyncBackend implements SyncBackend {
+
+    private final Firestore db;
+
+    public FirestoreSyncBackend(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public SyncDocument get(String path) throws Exception {
+        DocumentSnapshot doc = db.document(path).get().get();
+        return doc.exists() ? toSyncDocument(doc.getId(), doc.getData()) : null;
+    }
+
+    @Override
+    public void set(String path, Map<String, Object> data, boolean merge) throws Exception {
+        if (merge) {
+            db.document(path).set(toFirestore(data), SetOptions.merge()).get();
+        } else {
+            db.document(path).set(toFirestore(data)).get();
+        }
+    }
+
+    @Override
+    public Batch batch() {
+        return new FirestoreBatch();
+    }
+
+    @Override
+    public List<SyncDocument> queryChangedSince(String collectionPath, String field, long afterMicros) throws Exception {
+        Query query = db.collection(collectionPath);
+        if (afterMicros > 0) {
+            query = query.whereGreaterThan(field, Timestamp.ofTimeMicroseconds(afterMicros));
+        }
+        List<SyncDocument> documents = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : query.get().get().getDocuments()) {
+            documents.add(toSyncDocument(doc.getId(), doc.getData()));
+        }
+        return documents;
+    }
+
+    private class FirestoreBatch implements Batch {
+        private final WriteBatch batch = db.batch();
+
+        @Override
+        public void set(String path, Map<String, Object> data, boolean merge) {
+            if (merge) {
+                batch.set(db.document(path), toFirestore(data), SetOptions.merge());
+            } else {
+                batch.set(db.document(path), toFirestore(data));
+            }
+        }
+
+        @Override
+        public int size() {
+            return batch.getMutationsSize();
+        }
+
+        @Override
+        public CompletableFuture<Void> commit() {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            ApiFuture<List<WriteResult>> commit = batch.commit();
+            commit.addListener(() -> {
+                try {
+                    commit.get();
+                    done.complete(null);
+                } catch (ExecutionException e) {
+                    done.completeExceptionally(e.getCause());
+                } catch (Exception e) {
+                    done.completeExceptionally(e);
+                }
+            }, Runnable::run);
+            return done;
+        }
+    }
+
+    private static Map<String, Object> toFirestore(Map<String, Object> data) {
+        Map<String, Object> converted = new HashMap<>(data);
+        converted.replaceAll((field, value) -> value == SERVER_TIMESTAMP ? FieldValue.serverTimestamp() : value);
+        return converted;
+    }
+
+    private static SyncDocument toSyncDocument(String id, Map<String, Object> data) {
+        Map<String, Object> converted = new HashMap<>(data);
+        converted.replaceAll((field, value) -> {
+            if (value instanceof Timestamp) {
+                Timestamp ts = (Timestamp) value;
+                return ts.getSeconds() * 1_000_000L + ts.getNanos() / 1000;
+            }
+            return value;
+        });
+        return new SyncDocument(id, converted);
+    }
+}
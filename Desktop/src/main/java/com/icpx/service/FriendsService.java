@@ -6,6 +6,9 @@ import com.icpx.database.FriendsDAO;
 
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service for Friends feature with Firebase sync
@@ -13,6 +16,14 @@ import java.util.concurrent.ExecutionException;
  */
 public class FriendsService {
 
+    // Rating pushes run off the caller's thread; only the latest pending rating is sent
+    private static final ExecutorService ratingSyncExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rating-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicReference<Double> pendingRating = new AtomicReference<>();
+
     private final Firestore db;
 
     public FriendsService() {
@@ -357,6 +368,21 @@ public class FriendsService {
         }
     }
 
+    /**
+     * Queue a rating push to Firebase and return immediately.
+     * Ratings requested while a push is waiting are coalesced into one push of the latest value.
+     */
+    public static void requestRatingSync(double rating) {
+        if (pendingRating.getAndSet(rating) == null) {
+            ratingSyncExecutor.execute(() -> {
+                Double latest = pendingRating.getAndSet(null);
+                if (latest != null) {
+                    syncUserRatingToFirebase(latest);
+                }
+            });
+        }
+    }
+
     /**
      * Sync user's rating to Firebase for friends to see
      * Also creates/updates public profile in userProfiles collection
@@ -0,0 +1,246 @@
+package com.icpx.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sync backend kept in an embedded SQLite database instead of Firestore, for running
+ * and load testing the sync without a network. Every call waits latencyMillis first,
+ * like a round trip, and a commit fails with probability failureRate without writing anything.
+ */
+public class LocalSyncBackend implements SyncBackend, AutoCloseable {
+
+    private static final String CREATE_TABLE_SQL =
+        "CREATE TABLE IF NOT EXISTS documents (" +
+        "collection TEXT NOT NULL, " +
+        "id TEXT NOT NULL, " +
+        "data TEXT NOT NULL, " +
+        "PRIMARY KEY (collection, id)) WITHOUT ROWID";
+
+    private static final String SELECT_SQL = "SELECT data FROM documents WHERE collection = ? AND id = ?";
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO documents (collection, id, data) VALUES (?, ?, ?) " +
+        "ON CONFLICT(collection, id) DO UPDATE SET data = excluded.data";
+
+    // The field path is bound as '$."field"', so no field name ends up in the SQL text
+    private static final String SELECT_CHANGED_SQL =
+        "SELECT id, data FROM documents WHERE collection = ? AND (? <= 0 OR json_extract(data, ?) > ?)";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM documents WHERE collection = ?";
+
+    private static final Gson gson = new GsonBuilder()
+        .serializeNulls()
+        .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+        .create();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    // Commits sleep through their latency here, so many can be in flight at once
+    private static final ExecutorService commitExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "local-sync-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Connection conn;
+    private final long latencyMillis;
+    private final double failureRate;
+    private long lastTimestamp;
+
+    /**
+     * @param dbPath SQLite file for the documents, or null to keep them in memory
+     */
+    public LocalSyncBackend(String dbPath, long latencyMillis, double failureRate) throws SQLException {
+        this.conn = DriverManager.getConnection("jdbc:sqlite:" + (dbPath != null ? dbPath : ":memory:"));
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=WAL");
+            stmt.execute(CREATE_TABLE_SQL);
+        }
+    }
+
+    @Override
+    public SyncDocument get(String path) throws Exception {
+        roundTrip();
+        String[] key = split(path);
+        synchronized (this) {
+            Map<String, Object> data = read(key[0], key[1]);
+            return data != null ? new SyncDocument(key[1], data) : null;
+        }
+    }
+
+    @Override
+    public void set(String path, Map<String, Object> data, boolean merge) throws Exception {
+        roundTrip();
+        LocalBatch batch = new LocalBatch();
+        batch.set(path, data, merge);
+        batch.apply();
+    }
+
+    @Override
+    public Batch batch() {
+        return new LocalBatch();
+    }
+
+    @Override
+    public List<SyncDocument> queryChangedSince(String collectionPath, String field, long afterMicros) throws Exception {
+        roundTrip();
+        List<SyncDocument> documents = new ArrayList<>();
+        synchronized (this) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_CHANGED_SQL)) {
+                pstmt.setString(1, collectionPath);
+                pstmt.setLong(2, afterMicros);
+                pstmt.setString(3, "$.\"" + field + "\"");
+                pstmt.setLong(4, afterMicros);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        documents.add(new SyncDocument(rs.getString("id"), gson.fromJson(rs.getString("data"), MAP_TYPE)));
+                    }
+                }
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * @return Number of documents stored in a collection
+     */
+    public synchronized int countDocuments(String collectionPath) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(COUNT_SQL)) {
+            pstmt.setString(1, collectionPath);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        conn.close();
+    }
+
+    private class LocalBatch implements Batch {
+        private final List<String> paths = new ArrayList<>();
+        private final List<Map<String, Object>> writes = new ArrayList<>();
+        private final List<Boolean> merges = new ArrayList<>();
+
+        @Override
+        public void set(String path, Map<String, Object> data, boolean merge) {
+            paths.add(path);
+            writes.add(new LinkedHashMap<>(data));
+            merges.add(merge);
+        }
+
+        @Override
+        public int size() {
+            return paths.size();
+        }
+
+        @Override
+        public CompletableFuture<Void> commit() {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    roundTrip();
+                    if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                        throw new IOException("Injected commit failure");
+                    }
+                    apply();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, commitExecutor);
+        }
+
+        /**
+         * Write everything in one transaction, all with the same commit time
+         */
+        void apply() throws SQLException {
+            synchronized (LocalSyncBackend.this) {
+                long timestamp = nextTimestamp();
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                    for (int i = 0; i < paths.size(); i++) {
+                        String[] key = split(paths.get(i));
+                        Map<String, Object> data = new HashMap<>();
+                        if (merges.get(i)) {
+                            Map<String, Object> existing = read(key[0], key[1]);
+                            if (existing != null) {
+                                data.putAll(existing);
+                            }
+                        }
+                        data.putAll(writes.get(i));
+                        data.replaceAll((field, value) -> value == SERVER_TIMESTAMP ? timestamp : value);
+
+                        pstmt.setString(1, key[0]);
+                        pstmt.setString(2, key[1]);
+                        pstmt.setString(3, gson.toJson(data));
+                        pstmt.executeUpdate();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> read(String collection, String id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_SQL)) {
+            pstmt.setString(1, collection);
+            pstmt.setString(2, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? gson.fromJson(rs.getString("data"), MAP_TYPE) : null;
+            }
+        }
+    }
+
+    /**
+     * Commit times only move forward, so queries for newer documents never miss one
+     */
+    private long nextTimestamp() {
+        lastTimestamp = Math.max(lastTimestamp + 1, System.currentTimeMillis() * 1000);
+        return lastTimestamp;
+    }
+
+    private void roundTrip() throws InterruptedException {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+    }
+
+    /**
+     * @return Collection path and document id
+     */
+    private static String[] split(String path) {
+        int slash = path.lastIndexOf('/');
+        if (slash <= 0 || slash == path.length() - 1) {
+            throw new IllegalArgumentException("Not a document path: " + path);
+        }
+        return new String[] { path.substring(0, slash), path.substring(slash + 1) };
+    }
+}
@@ -0,0 +1,146 @@
+package com.icpx.service;
+
+import com.icpx.database.ProblemsetDAO;
+import com.icpx.database.SettingsDAO;
+import com.icpx.model.ProblemKey;
+import com.icpx.service.CodeforcesService.ProblemDetails;
+import com.icpx.service.CodeforcesService.ProblemsetProblem;
+
+import com.icpx.util.LongObjectHashMap;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local index of the Codeforces problemset.
+ * The problemset is downloaded once, persisted in SQLite and served from memory;
+ * it is refreshed in the background once it is older than the TTL.
+ */
+public class ProblemsetIndex {
+
+    private static final String SYNCED_AT_KEY = "problemset_synced_at";
+    private static final long REFRESH_TTL_MILLIS = TimeUnit.HOURS.toMillis(24);
+    // A lookup miss (e.g. a problem from a contest that just ended) may refresh an index this old
+    private static final long MISS_REFRESH_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final ProblemsetIndex instance = new ProblemsetIndex();
+
+    private final CodeforcesService codeforcesService = new CodeforcesService();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile LongObjectHashMap<ProblemDetails> problems = new LongObjectHashMap<>();
+    private volatile boolean loaded = false;
+
+    public static ProblemsetIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Look up a problem by contest ID and index
+     * @return Problem details, or null if the problem is not in the problemset
+     */
+    public ProblemDetails lookup(String contestId, String index) throws IOException {
+        try {
+            return lookup(ProblemKey.of(Integer.parseInt(contestId), index));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Look up a problem by its packed key
+     * @return Problem details, or null if the problem is not in the problemset
+     */
+    public ProblemDetails lookup(long problemKey) throws IOException {
+        ensureLoaded();
+        ProblemDetails details = problemKey != ProblemKey.NONE ? problems.get(problemKey) : null;
+        if (details == null && getAgeMillis() > MISS_REFRESH_MILLIS) {
+            refreshInBackground();
+        }
+        return details;
+    }
+
+    /**
+     * Load the index from the database, downloading it first if nothing is stored yet
+     */
+    private synchronized void ensureLoaded() throws IOException {
+        if (loaded) {
+            return;
+        }
+
+        List<ProblemsetProblem> stored = ProblemsetDAO.getAllProblems();
+        if (stored.isEmpty()) {
+            refresh();
+            return;
+        }
+
+        problems = buildMap(stored);
+        loaded = true;
+        System.out.println("Loaded " + stored.size() + " problems from local problemset index");
+
+        if (getAgeMillis() > REFRESH_TTL_MILLIS) {
+            refreshInBackground();
+        }
+    }
+
+    /**
+     * Download the problemset and replace the stored copy
+     */
+    public void refresh() throws IOException {
+        List<ProblemsetProblem> fetched = codeforcesService.fetchProblemset();
+        if (fetched.isEmpty()) {
+            throw new IOException("Codeforces returned an empty problemset");
+        }
+
+        ProblemsetDAO.replaceProblemset(fetched);
+        SettingsDAO.setSetting(SYNCED_AT_KEY, String.valueOf(System.currentTimeMillis()));
+        problems = buildMap(fetched);
+        loaded = true;
+        System.out.println("Problemset index refreshed: " + fetched.size() + " problems");
+    }
+
+    /**
+     * Refresh the index on a background thread (at most one refresh at a time)
+     */
+    public void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                refresh();
+            } catch (IOException e) {
+                System.err.println("Background problemset refresh failed: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }, "problemset-refresh");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private long getAgeMillis() {
+        String syncedAt = SettingsDAO.getSetting(SYNCED_AT_KEY);
+        if (syncedAt == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return System.currentTimeMillis() - Long.parseLong(syncedAt);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static LongObjectHashMap<ProblemDetails> buildMap(List<ProblemsetProblem> list) {
+        LongObjectHashMap<ProblemDetails> map = new LongObjectHashMap<>(list.size());
+        for (ProblemsetProblem problem : list) {
+            long key = ProblemKey.of(problem.contestId, problem.index);
+            if (key != ProblemKey.NONE) {
+                map.put(key, new ProblemDetails(problem.name, problem.rating));
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,215 @@
+package com.icpx.service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk cache of raw Codeforces API responses, keyed by URL.
+ * Each entry is a body file plus a small metadata file holding the fetch time
+ * and the validators (ETag / Last-Modified) used for conditional revalidation.
+ */
+public class ResponseCache {
+
+    private static final String CACHE_DIRECTORY_PATH = System.getProperty("user.home") + "/.icpx/cache";
+
+    private static ResponseCache instance;
+
+    private final File directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param directory Directory holding the cache files
+     */
+    public ResponseCache(File directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized ResponseCache getInstance() {
+        if (instance == null) {
+            instance = new ResponseCache(new File(CACHE_DIRECTORY_PATH));
+        }
+        return instance;
+    }
+
+    /**
+     * Get the cache entry for a URL, or null if it was never stored
+     */
+    public Entry get(String url) {
+        String key = keyFor(url);
+        File metaFile = new File(directory, key + ".meta");
+        File bodyFile = new File(directory, key + ".body");
+        if (!metaFile.isFile() || !bodyFile.isFile()) {
+            return null;
+        }
+
+        Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(metaFile)) {
+            meta.load(in);
+            long fetchedAt = Long.parseLong(meta.getProperty("fetchedAt", "0"));
+            return new Entry(bodyFile, fetchedAt, meta.getProperty("etag"), meta.getProperty("lastModified"));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error reading cache entry for " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store a response body, replacing any previous entry for the URL
+     */
+    public synchronized Entry store(String url, InputStream body, String etag, String lastModified) throws IOException {
+        ensureDirectory();
+        String key = keyFor(url);
+        File bodyFile = new File(directory, key + ".body");
+        File tempFile = File.createTempFile(key, ".tmp", directory);
+
+        try {
+            Files.copy(body, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile.toPath(), bodyFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+
+        long fetchedAt = System.currentTimeMillis();
+        writeMeta(url, key, fetchedAt, etag, lastModified);
+        return new Entry(bodyFile, fetchedAt, etag, lastModified);
+    }
+
+    /**
+     * Mark an entry as fresh again after the server answered 304 Not Modified
+     */
+    public synchronized Entry touch(String url, Entry entry) throws IOException {
+        long fetchedAt = System.currentTimeMillis();
+        writeMeta(url, keyFor(url), fetchedAt, entry.etag, entry.lastModified);
+        return new Entry(entry.bodyFile, fetchedAt, entry.etag, entry.lastModified);
+    }
+
+    /**
+     * Drop the entry for a URL
+     */
+    public synchronized void remove(String url) {
+        String key = keyFor(url);
+        new File(directory, key + ".meta").delete();
+        new File(directory, key + ".body").delete();
+    }
+
+    private void writeMeta(String url, String key, long fetchedAt, String etag, String lastModified) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("url", url);
+        meta.setProperty("fetchedAt", String.valueOf(fetchedAt));
+        if (etag != null) {
+            meta.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            meta.setProperty("lastModified", lastModified);
+        }
+        try (OutputStream out = new FileOutputStream(new File(directory, key + ".meta"))) {
+            meta.store(out, null);
+        }
+    }
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Fraction of lookups answered without downloading a body (fresh hits and 304s), since startup
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Total size of the cache directory in bytes
+     */
+    public long getSizeBytes() {
+        long size = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Delete all cached responses and reset the hit statistics
+     */
+    public synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    System.err.println("Could not delete cache file: " + file);
+                }
+            }
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private void ensureDirectory() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create cache directory: " + directory);
+        }
+    }
+
+    private static String keyFor(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Inner class to hold a cached response
+     */
+    public static class Entry {
+        public final File bodyFile;
+        public final long fetchedAt;
+        public final String etag;
+        public final String lastModified;
+
+        public Entry(File bodyFile, long fetchedAt, String etag, String lastModified) {
+            this.bodyFile = bodyFile;
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public boolean isFresh(long ttlMillis) {
+            return System.currentTimeMillis() - fetchedAt < ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.icpx.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Document store the cloud sync talks to. Paths are slash separated like Firestore's,
+ * e.g. users/{uid}/targets/{docId}. Timestamps read back are epoch microseconds.
+ */
+public interface SyncBackend {
+
+    /**
+     * Field value replaced by the store's commit time when the document is written
+     */
+    Object SERVER_TIMESTAMP = new Object() {
+        @Override
+        public String toString() {
+            return "SERVER_TIMESTAMP";
+        }
+    };
+
+    /**
+     * @return The document at path, or null if there is none
+     */
+    SyncDocument get(String path) throws Exception;
+
+    void set(String path, Map<String, Object> data, boolean merge) throws Exception;
+
+    Batch batch();
+
+    /**
+     * Documents of a collection whose timestamp field is after the given time.
+     * All documents (including ones without the field) when afterMicros is 0 or less.
+     */
+    List<SyncDocument> queryChangedSince(String collectionPath, String field, long afterMicros) throws Exception;
+
+    /**
+     * Writes that are committed together, or not at all
+     */
+    interface Batch {
+        void set(String path, Map<String, Object> data, boolean merge);
+
+        int size();
+
+        /**
+         * Start the commit without waiting for it
+         */
+        CompletableFuture<Void> commit();
+    }
+
+    /**
+     * Inner class to hold a document read from the store
+     */
+    class SyncDocument {
+        public final String id;
+        public final Map<String, Object> data;
+
+        public SyncDocument(String id, Map<String, Object> data) {
+            this.id = id;
+            this.data = Collections.unmodifiableMap(data);
+        }
+
+        public String getString(String field) {
+            Object value = data.get(field);
+            return value != null ? value.toString() : null;
+        }
+
+        public Long getLong(String field) {
+            Object value = data.get(field);
+            return value instanceof Number ? ((Number) value).longValue() : null;
+        }
+
+        public Boolean getBoolean(String field) {
+            Object value = data.get(field);
+            return value instanceof Boolean ? (Boolean) value : null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.icpx.service;
+
+import com.icpx.database.SubmissionDAO;
+import com.icpx.database.TargetDAO;
+import com.icpx.model.ProblemKey;
+import com.icpx.model.Target;
+import com.icpx.util.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies all unsolved problem targets against a single scan of the user's submissions
+ */
+public class TargetVerificationService {
+
+    private final CodeforcesService codeforcesService;
+
+    public TargetVerificationService() {
+        this(new CodeforcesService());
+    }
+
+    public TargetVerificationService(CodeforcesService codeforcesService) {
+        this.codeforcesService = codeforcesService;
+    }
+
+    /**
+     * Check every pending/failed problem target and mark the accepted ones as achieved
+     * @param handle Codeforces handle
+     * @return Summary of the verification run
+     */
+    public VerificationResult verifyPendingTargets(String handle) throws IOException {
+        // One incremental submissions sync for the whole batch
+        boolean stale = !codeforcesService.syncSubmissionsOrFallBack(handle);
+        LongHashSet accepted = SubmissionDAO.getAcceptedProblemKeys(handle);
+
+        List<Target> unsolved = TargetDAO.getUnsolvedProblems();
+        List<Integer> achievedIds = new ArrayList<>();
+        int checked = 0;
+
+        for (Target target : unsolved) {
+            long key = ProblemKey.parseUrl(target.getProblemLink());
+            if (key == ProblemKey.NONE) {
+                continue;
+            }
+            checked++;
+            if (accepted.contains(key)) {
+                achievedIds.add(target.getId());
+            }
+        }
+
+        double ratingChange = TargetDAO.updateTargetStatusesWithRating(achievedIds, "achieved");
+        return new VerificationResult(checked, achievedIds.size(), ratingChange, stale);
+    }
+
+    /**
+     * Inner class to hold the outcome of a batch verification
+     */
+    public static class VerificationResult {
+        public final int checked;
+        public final int achieved;
+        public final double ratingChange;
+        // True if Codeforces was unavailable and only stored submissions were checked
+        public final boolean stale;
+
+        public VerificationResult(int checked, int achieved, double ratingChange, boolean stale) {
+            this.checked = checked;
+            this.achieved = achieved;
+            this.ratingChange = ratingChange;
+            this.stale = stale;
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.icpx.tools;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Codeforces API, for benchmarks and offline runs.
+ * Generates deterministic synthetic payloads, sized by the count options. With --fixtures
+ * (e.g. fixtures/codeforces) it serves "{method}.json" files instead where they exist;
+ * gym contests come from "contest.list.gym.json", standings from "contest.standings.{contestId}.json",
+ * and user.status is paged by from/count.
+ * Latency, 429/503 errors and a Codeforces-style call limit can be injected.
+ *
+ * Point the desktop app at it with -Dicpx.codeforces.apiUrl=http://localhost:{port}/api
+ *
+ * Usage: CodeforcesStubServer [--port 8089] [--fixtures dir] [--latency-ms 0] [--jitter-ms 0]
+ *        [--error-429 0.0] [--error-503 0.0] [--call-limit-ms 0] [--submissions 2000]
+ *        [--contests 1500] [--gym-contests 5000] [--problems 9000] [--seed 42] [--quiet]
+ */
+public class CodeforcesStubServer {
+
+    private static final String[] VERDICTS = {"OK", "WRONG_ANSWER", "TIME_LIMIT_EXCEEDED", "RUNTIME_ERROR", "MEMORY_LIMIT_EXCEEDED"};
+    private static final String[] TAGS = {"greedy", "math", "dp", "graphs", "implementation", "strings", "binary search", "data structures"};
+    private static final String[] INDICES = {"A", "B", "C", "D", "E", "F"};
+    private static final long FIRST_SUBMISSION_ID = 250_000_000L;
+
+    private final int port;
+    private final File fixturesDirectory;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double error429Rate;
+    private final double error503Rate;
+    private final long callLimitMillis;
+    private final int submissionCount;
+    private final int contestCount;
+    private final int gymContestCount;
+    private final int problemCount;
+    private final long seed;
+    private final boolean quiet;
+
+    // Fixed at startup so synthetic payloads are stable across calls
+    private final long epochSeconds = System.currentTimeMillis() / 1000;
+    private final AtomicLong lastCallNanos = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private HttpServer server;
+
+    /**
+     * Writes the "result" value of a synthetic response
+     */
+    private interface ResultWriter {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    public CodeforcesStubServer(Map<String, String> options) {
+        this.port = Integer.parseInt(options.getOrDefault("port", "8089"));
+        this.fixturesDirectory = options.containsKey("fixtures") ? new File(options.get("fixtures")) : null;
+        this.latencyMillis = Long.parseLong(options.getOrDefault("latency-ms", "0"));
+        this.jitterMillis = Long.parseLong(options.getOrDefault("jitter-ms", "0"));
+        this.error429Rate = Double.parseDouble(options.getOrDefault("error-429", "0"));
+        this.error503Rate = Double.parseDouble(options.getOrDefault("error-503", "0"));
+        this.callLimitMillis = Long.parseLong(options.getOrDefault("call-limit-ms", "0"));
+        this.submissionCount = Integer.parseInt(options.getOrDefault("submissions", "2000"));
+        this.contestCount = Integer.parseInt(options.getOrDefault("contests", "1500"));
+        this.gymContestCount = Integer.parseInt(options.getOrDefault("gym-contests", "5000"));
+        this.problemCount = Integer.parseInt(options.getOrDefault("problems", "9000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.quiet = options.containsKey("quiet");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (name.equals("quiet")) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+
+        CodeforcesStubServer stub = new CodeforcesStubServer(options);
+        stub.start();
+        System.out.println("Codeforces stub listening on http://localhost:" + stub.getPort() + "/api");
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Actual port (useful with --port 0)
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            String method = exchange.getRequestURI().getPath().substring("/api/".length());
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (!quiet) {
+                System.out.println(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            }
+
+            sleepLatency();
+
+            if (isCallLimited()) {
+                sendFailed(exchange, 503, "Call limit exceeded");
+                return;
+            }
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < error429Rate) {
+                sendFailed(exchange, 429, "Too Many Requests");
+                return;
+            }
+            if (roll < error429Rate + error503Rate) {
+                sendFailed(exchange, 503, "Codeforces is temporarily unavailable");
+                return;
+            }
+
+            switch (method) {
+                case "contest.list":
+                    boolean gym = Boolean.parseBoolean(query.getOrDefault("gym", "false"));
+                    if (!sendFixture(exchange, gym ? "contest.list.gym" : "contest.list", query)) {
+                        sendOk(exchange, json -> writeContests(json, gym));
+                    }
+                    break;
+                case "contest.standings":
+                    int contestId = parseInt(query.get("contestId"), -1);
+                    if (contestId <= 0) {
+                        sendFailed(exchange, 400, "contestId: Field should contain long integer value");
+                        return;
+                    }
+                    if (!sendFixture(exchange, "contest.standings." + contestId, query)) {
+                        sendOk(exchange, json -> writeStandings(json, contestId));
+                    }
+                    break;
+                case "problemset.problems":
+                    if (!sendFixture(exchange, method, query)) {
+                        sendOk(exchange, this::writeProblemset);
+                    }
+                    break;
+                case "user.status":
+                    String handle = query.get("handle");
+                    if (handle == null || handle.startsWith("missing")) {
+                        sendFailed(exchange, 400, "handle: User with handle " + handle + " not found");
+                        return;
+                    }
+                    if (!sendFixture(exchange, method, query)) {
+                        int from = parseInt(query.get("from"), 1);
+                        int count = parseInt(query.get("count"), submissionCount);
+                        sendOk(exchange, json -> writeSubmissions(json, handle, from, count));
+                    }
+                    break;
+                case "user.info":
+                    String handles = query.getOrDefault("handles", "");
+                    if (!sendFixture(exchange, method, query)) {
+                        sendOk(exchange, json -> writeUsers(json, handles.split(";")));
+                    }
+                    break;
+                case "user.rating":
+                    String ratingHandle = query.getOrDefault("handle", "");
+                    if (!sendFixture(exchange, method, query)) {
+                        sendOk(exchange, json -> writeRatingChanges(json, ratingHandle));
+                    }
+                    break;
+                default:
+                    sendFailed(exchange, 400, "Unknown method: " + method);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendFailed(exchange, 500, "Stub error: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sleepLatency() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mimics Codeforces rejecting calls that arrive less than callLimitMillis apart
+     */
+    private boolean isCallLimited() {
+        if (callLimitMillis <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long previous = lastCallNanos.getAndSet(now);
+        return previous != 0 && now - previous < callLimitMillis * 1_000_000L;
+    }
+
+    // --- Synthetic payloads ---
+
+    private void writeContests(JsonWriter json, boolean gym) throws IOException {
+        int count = gym ? gymContestCount : contestCount;
+        int firstId = gym ? 100_000 : 1;
+        json.beginArray();
+        for (int i = 0; i < count; i++) {
+            // Newest first, like Codeforces; the first few are upcoming and one is running
+            int id = firstId + count - 1 - i;
+            long start;
+            String phase;
+            if (i < 5) {
+                start = epochSeconds + (5 - i) * 86_400L;
+                phase = "BEFORE";
+            } else if (i == 5) {
+                start = epochSeconds - 1800;
+                phase = "CODING";
+            } else {
+                start = epochSeconds - (i - 5) * 259_200L;
+                phase = "FINISHED";
+            }
+            json.beginObject();
+            json.name("id").value(id);
+            json.name("name").value((gym ? "Gym Training " : "Codeforces Round ") + id);
+            json.name("type").value(i % 3 == 0 ? "ICPC" : "CF");
+            json.name("phase").value(phase);
+            json.name("frozen").value(false);
+            json.name("durationSeconds").value(7200);
+            json.name("startTimeSeconds").value(start);
+            json.name("relativeTimeSeconds").value(epochSeconds - start);
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void writeStandings(JsonWriter json, int contestId) throws IOException {
+        json.beginObject();
+        json.name("contest").beginObject()
+            .name("id").value(contestId)
+            .name("name").value("Codeforces Round " + contestId)
+            .name("type").value("CF")
+            .name("phase").value("FINISHED")
+            .name("frozen").value(false)
+            .name("durationSeconds").value(7200)
+            .endObject();
+        json.name("problems").beginArray();
+        for (String index : INDICES) {
+            writeProblem(json, contestId, index);
+        }
+        json.endArray();
+        json.name("rows").beginArray().endArray();
+        json.endObject();
+    }
+
+    private void writeProblemset(JsonWriter json) throws IOException {
+        int contests = Math.max(1, problemCount / INDICES.length);
+        json.beginObject();
+        json.name("problems").beginArray();
+        for (int contestId = contests; contestId >= 1; contestId--) {
+            for (String index : INDICES) {
+                writeProblem(json, contestId, index);
+            }
+        }
+        json.endArray();
+        json.name("problemStatistics").beginArray();
+        for (int contestId = contests; contestId >= 1; contestId--) {
+            for (String index : INDICES) {
+                json.beginObject()
+                    .name("contestId").value(contestId)
+                    .name("index").value(index)
+                    .name("solvedCount").value(mix(contestId * 31L + index.charAt(0)) % 50_000)
+                    .endObject();
+            }
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private void writeProblem(JsonWriter json, int contestId, String index) throws IOException {
+        long h = mix(contestId * 31L + index.charAt(0));
+        json.beginObject();
+        json.name("contestId").value(contestId);
+        json.name("index").value(index);
+        json.name("name").value("Problem " + contestId + index);
+        json.name("type").value("PROGRAMMING");
+        // Roughly one problem in ten is unrated
+        if (h % 10 != 0) {
+            json.name("rating").value(800 + 100 * (int) ((h >>> 8) % 28));
+        }
+        json.name("tags").beginArray()
+            .value(TAGS[(int) (h % TAGS.length)])
+            .value(TAGS[(int) ((h >>> 16) % TAGS.length)])
+            .endArray();
+        json.endObject();
+    }
+
+    /**
+     * Submissions are numbered 1..submissionCount from newest to oldest
+     */
+    private void writeSubmissions(JsonWriter json, String handle, int from, int count) throws IOException {
+        long span = 3L * 365 * 86_400;
+        int maxContest = Math.max(1, problemCount / INDICES.length);
+        json.beginArray();
+        for (int position = from; position < from + count && position <= submissionCount; position++) {
+            long h = mix(position);
+            int contestId = 1 + (int) (h % maxContest);
+            String index = INDICES[(int) ((h >>> 20) % INDICES.length)];
+            String verdict = (h >>> 32) % 100 < 45 ? "OK" : VERDICTS[1 + (int) ((h >>> 40) % (VERDICTS.length - 1))];
+            long created = epochSeconds - (position * span) / Math.max(1, submissionCount);
+
+            json.beginObject();
+            json.name("id").value(FIRST_SUBMISSION_ID + submissionCount - position);
+            json.name("contestId").value(contestId);
+            json.name("creationTimeSeconds").value(created);
+            json.name("relativeTimeSeconds").value(2147483647);
+            json.name("problem");
+            writeProblem(json, contestId, index);
+            json.name("author").beginObject()
+                .name("contestId").value(contestId)
+                .name("members").beginArray().beginObject().name("handle").value(handle).endObject().endArray()
+                .name("participantType").value("PRACTICE")
+                .name("ghost").value(false)
+                .endObject();
+            json.name("programmingLanguage").value("GNU C++17");
+            json.name("verdict").value(verdict);
+            json.name("testset").value("TESTS");
+            json.name("passedTestCount").value((h >>> 48) % 40);
+            json.name("timeConsumedMillis").value((h >>> 24) % 2000);
+            json.name("memoryConsumedBytes").value(((h >>> 12) % 256) * 1024 * 1024);
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void writeUsers(JsonWriter json, String[] handles) throws IOException {
+        json.beginArray();
+        for (String handle : handles) {
+            if (handle.isEmpty()) {
+                continue;
+            }
+            long h = mix(handle.hashCode());
+            int rating = 800 + (int) (h % 2600);
+            json.beginObject();
+            json.name("handle").value(handle);
+            json.name("rating").value(rating);
+            json.name("maxRating").value(rating + (int) ((h >>> 16) % 200));
+            json.name("rank").value(rankFor(rating));
+            json.name("maxRank").value(rankFor(rating + (int) ((h >>> 16) % 200)));
+            json.name("contribution").value(0);
+            json.name("friendOfCount").value((h >>> 24) % 500);
+            json.name("lastOnlineTimeSeconds").value(epochSeconds - (h >>> 32) % 86_400);
+            json.name("registrationTimeSeconds").value(epochSeconds - 4L * 365 * 86_400);
+            json.name("avatar").value("https://userpic.codeforces.org/no-avatar.jpg");
+            json.name("titlePhoto").value("https://userpic.codeforces.org/no-title.jpg");
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void writeRatingChanges(JsonWriter json, String handle) throws IOException {
+        int rating = 1500;
+        json.beginArray();
+        for (int i = 0; i < 50; i++) {
+            long h = mix(handle.hashCode() * 131L + i);
+            int newRating = Math.max(0, rating + (int) (h % 151) - 70);
+            int contestId = 1000 + i * 20;
+            json.beginObject();
+            json.name("contestId").value(contestId);
+            json.name("contestName").value("Codeforces Round " + contestId);
+            json.name("handle").value(handle);
+            json.name("rank").value(1 + (h >>> 16) % 10_000);
+            json.name("ratingUpdateTimeSeconds").value(epochSeconds - (50 - i) * 604_800L);
+            json.name("oldRating").value(rating);
+            json.name("newRating").value(newRating);
+            json.endObject();
+            rating = newRating;
+        }
+        json.endArray();
+    }
+
+    private static String rankFor(int rating) {
+        if (rating < 1200) return "newbie";
+        if (rating < 1400) return "pupil";
+        if (rating < 1600) return "specialist";
+        if (rating < 1900) return "expert";
+        if (rating < 2100) return "candidate master";
+        if (rating < 2400) return "master";
+        return "grandmaster";
+    }
+
+    /**
+     * Deterministic non-negative hash of a position, mixed with the seed
+     */
+    private long mix(long value) {
+        long h = (value + seed) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 29;
+        return h & Long.MAX_VALUE;
+    }
+
+    // --- HTTP helpers ---
+
+    private void sendOk(HttpExchange exchange, ResultWriter resultWriter) throws IOException {
+        try (Writer writer = new OutputStreamWriter(openBody(exchange, 200), StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            json.beginObject();
+            json.name("status").value("OK");
+            json.name("result");
+            resultWriter.write(json);
+            json.endObject();
+        }
+    }
+
+    private void sendFailed(HttpExchange exchange, int statusCode, String comment) throws IOException {
+        try (Writer writer = new OutputStreamWriter(openBody(exchange, statusCode), StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            json.beginObject();
+            json.name("status").value("FAILED");
+            json.name("comment").value(comment);
+            json.endObject();
+        }
+    }
+
+    /**
+     * Send the fixture "{name}.json" if the fixtures directory has one. Paged methods (user.status)
+     * get only the from/count slice (from is 1-based) of its result array, like a paged API call.
+     * @return false if there is no such fixture
+     */
+    private boolean sendFixture(HttpExchange exchange, String name, Map<String, String> query) throws IOException {
+        File fixture = fixturesDirectory != null ? new File(fixturesDirectory, name + ".json") : null;
+        if (fixture == null || !fixture.isFile()) {
+            return false;
+        }
+        byte[] body = Files.readAllBytes(fixture.toPath());
+        if (!name.equals("user.status")) {
+            sendBytes(exchange, 200, body);
+            return true;
+        }
+
+        int from = parseInt(query.get("from"), 1);
+        int count = parseInt(query.get("count"), Integer.MAX_VALUE);
+        JsonObject response = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        JsonArray result = response.getAsJsonArray("result");
+        JsonArray page = new JsonArray();
+        for (int i = Math.max(0, from - 1); i < result.size() && i - (from - 1) < count; i++) {
+            page.add(result.get(i));
+        }
+        response.add("result", page);
+        sendBytes(exchange, 200, response.toString().getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    private void sendBytes(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        try (OutputStream out = openBody(exchange, statusCode)) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Start a chunked response, gzip-compressed when the client accepts it
+     */
+    private OutputStream openBody(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        OutputStream body = exchange.getResponseBody();
+        return gzip ? new GZIPOutputStream(body, 64 * 1024) : body;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            query.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
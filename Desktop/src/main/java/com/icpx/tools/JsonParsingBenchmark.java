@@ -0,0 +1,173 @@
+package com.icpx.tools;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.icpx.model.Contest;
+import com.icpx.model.Submission;
+import com.icpx.service.CodeforcesJsonParser;
+import com.icpx.service.CodeforcesService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the streaming Codeforces parsers against the String + JSON tree approach
+ * on Codeforces API responses. Both build the same model objects; the fixture defaults
+ * to fixtures/codeforces/{endpoint}.json, the payloads also served by CodeforcesStubServer.
+ *
+ * Usage: JsonParsingBenchmark &lt;user.status|problemset.problems|contest.list&gt; [fixture.json] [iterations]
+ */
+public class JsonParsingBenchmark {
+
+    private static final String DEFAULT_FIXTURES = "fixtures/codeforces";
+
+    private interface Parser {
+        List<?> parse(byte[] body) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: JsonParsingBenchmark <user.status|problemset.problems|contest.list> [fixture.json] [iterations]");
+            System.exit(1);
+        }
+
+        String endpoint = args[0];
+        String fixture = args.length > 1 ? args[1] : DEFAULT_FIXTURES + "/" + endpoint + ".json";
+        byte[] body = Files.readAllBytes(Paths.get(fixture));
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Parser streaming;
+        Parser tree;
+        switch (endpoint) {
+            case "user.status":
+                streaming = b -> CodeforcesJsonParser.parseSubmissions(new ByteArrayInputStream(b));
+                tree = JsonParsingBenchmark::parseSubmissionsTree;
+                break;
+            case "problemset.problems":
+                streaming = b -> CodeforcesJsonParser.parseProblemset(new ByteArrayInputStream(b));
+                tree = JsonParsingBenchmark::parseProblemsetTree;
+                break;
+            case "contest.list":
+                streaming = b -> CodeforcesJsonParser.parseContests(new ByteArrayInputStream(b));
+                tree = JsonParsingBenchmark::parseContestsTree;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+
+        System.out.printf("Fixture: %s (%.1f KB), %d iterations%n", fixture, body.length / 1024.0, iterations);
+        run("tree", tree, body, iterations);
+        run("streaming", streaming, body, iterations);
+    }
+
+    // --- The previous approach: whole body as a String, then a full Gson tree ---
+
+    private static JsonElement parseResult(byte[] body) {
+        String json = new String(body, StandardCharsets.UTF_8);
+        JsonObject response = JsonParser.parseString(json).getAsJsonObject();
+        return response.get("result");
+    }
+
+    private static List<Submission> parseSubmissionsTree(byte[] body) {
+        List<Submission> submissions = new ArrayList<>();
+        for (JsonElement element : parseResult(body).getAsJsonArray()) {
+            JsonObject json = element.getAsJsonObject();
+            Submission submission = new Submission();
+            submission.setId(json.get("id").getAsLong());
+            submission.setCreationTimeSeconds(json.get("creationTimeSeconds").getAsLong());
+            if (json.has("verdict") && !json.get("verdict").isJsonNull()) {
+                submission.setVerdict(json.get("verdict").getAsString());
+            }
+            JsonObject problem = json.getAsJsonObject("problem");
+            if (problem.has("contestId")) {
+                submission.setContestId(problem.get("contestId").getAsInt());
+            }
+            submission.setProblemIndex(problem.has("index") ? problem.get("index").getAsString() : null);
+            submissions.add(submission);
+        }
+        return submissions;
+    }
+
+    private static List<CodeforcesService.ProblemsetProblem> parseProblemsetTree(byte[] body) {
+        List<CodeforcesService.ProblemsetProblem> problems = new ArrayList<>();
+        for (JsonElement element : parseResult(body).getAsJsonObject().getAsJsonArray("problems")) {
+            JsonObject json = element.getAsJsonObject();
+            if (!json.has("contestId") || !json.has("index")) {
+                continue;
+            }
+            String name = json.has("name") ? json.get("name").getAsString() : "Unknown Problem";
+            Integer rating = json.has("rating") ? json.get("rating").getAsInt() : null;
+            problems.add(new CodeforcesService.ProblemsetProblem(
+                json.get("contestId").getAsInt(), json.get("index").getAsString(), name, rating));
+        }
+        return problems;
+    }
+
+    private static List<Contest> parseContestsTree(byte[] body) {
+        List<Contest> contests = new ArrayList<>();
+        for (JsonElement element : parseResult(body).getAsJsonArray()) {
+            JsonObject json = element.getAsJsonObject();
+            Contest contest = new Contest();
+            contest.setId(json.get("id").getAsInt());
+            contest.setName(json.get("name").getAsString());
+            contest.setType(json.has("type") ? json.get("type").getAsString() : "");
+            contest.setPhase(json.get("phase").getAsString());
+            contest.setFrozen(json.get("frozen").getAsBoolean());
+            contest.setDurationSeconds(json.get("durationSeconds").getAsLong());
+            if (json.has("startTimeSeconds")) {
+                contest.setStartTimeSeconds(json.get("startTimeSeconds").getAsLong());
+            }
+            if (json.has("relativeTimeSeconds")) {
+                contest.setRelativeTimeSeconds(json.get("relativeTimeSeconds").getAsLong());
+            }
+            contests.add(contest);
+        }
+        return contests;
+    }
+
+    private static void run(String label, Parser parser, byte[] body, int iterations) throws IOException {
+        // Warm up
+        for (int i = 0; i < Math.max(3, iterations / 4); i++) {
+            parser.parse(body);
+        }
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans();
+        long baseline = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                baseline += pool.getUsage().getUsed();
+            }
+        }
+
+        long allocatedBefore = BenchmarkSupport.allocatedBytes();
+        long start = System.nanoTime();
+        int records = 0;
+        for (int i = 0; i < iterations; i++) {
+            records = parser.parse(body).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = BenchmarkSupport.allocatedBytes() - allocatedBefore;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        System.out.printf("%-10s %6d records  %8.2f ms/parse  %8.2f MB allocated/parse  peak heap +%.2f MB%n",
+            label, records, elapsed / 1e6 / iterations, allocated / 1048576.0 / iterations,
+            Math.max(0, peak - baseline) / 1048576.0);
+    }
+}
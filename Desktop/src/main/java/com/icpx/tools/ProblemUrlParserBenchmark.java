@@ -0,0 +1,81 @@
+package com.icpx.tools;
+
+import com.icpx.model.ProblemKey;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares ProblemKey.parseUrl against the previous regex-based URL parsing
+ * (three patterns compiled per call) on a mix of contest, problemset, gym and non-problem URLs.
+ *
+ * Usage: ProblemUrlParserBenchmark [iterations]
+ */
+public class ProblemUrlParserBenchmark {
+
+    private static final String[] URLS = {
+        "https://codeforces.com/contest/1922/problem/A",
+        "https://codeforces.com/problemset/problem/4/A",
+        "https://codeforces.com/gym/104114/problem/K",
+        "https://codeforces.com/contest/1842/problem/F2",
+        "https://atcoder.jp/contests/abc300/tasks/abc300_a",
+        "https://codeforces.com/problemset/problem/1791/G1"
+    };
+
+    private interface UrlParser {
+        long parse(String url);
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        for (String url : URLS) {
+            long expected = regexParse(url);
+            long actual = ProblemKey.parseUrl(url);
+            if (expected != actual) {
+                throw new IllegalStateException("Parsers disagree on " + url + ": "
+                    + ProblemKey.toString(expected) + " vs " + ProblemKey.toString(actual));
+            }
+        }
+
+        // Warm up both paths before measuring
+        run("regex", ProblemUrlParserBenchmark::regexParse, iterations / 4, false);
+        run("ProblemKey", ProblemKey::parseUrl, iterations / 4, false);
+        run("regex", ProblemUrlParserBenchmark::regexParse, iterations, true);
+        run("ProblemKey", ProblemKey::parseUrl, iterations, true);
+    }
+
+    private static void run(String label, UrlParser parser, int iterations, boolean report) {
+        long allocatedBefore = BenchmarkSupport.allocatedBytes();
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            checksum += parser.parse(URLS[i % URLS.length]);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = BenchmarkSupport.allocatedBytes() - allocatedBefore;
+
+        if (report) {
+            System.out.printf("%-11s %8.1f ns/url  %8.1f bytes/url  (checksum %d)%n",
+                label, (double) elapsed / iterations, (double) allocated / iterations, checksum);
+        }
+    }
+
+    /**
+     * The previous CodeforcesService.parseProblemUrl, returning a packed key for comparison
+     */
+    private static long regexParse(String url) {
+        String[] patterns = {
+            "contest/(\\d+)/problem/([A-Z0-9]+)",
+            "problemset/problem/(\\d+)/([A-Z0-9]+)",
+            "gym/(\\d+)/problem/([A-Z0-9]+)"
+        };
+        for (String regex : patterns) {
+            Matcher matcher = Pattern.compile(regex).matcher(url);
+            if (matcher.find()) {
+                return ProblemKey.of(Integer.parseInt(matcher.group(1)), matcher.group(2));
+            }
+        }
+        return ProblemKey.NONE;
+    }
+}
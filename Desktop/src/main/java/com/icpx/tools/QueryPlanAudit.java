@@ -0,0 +1,138 @@
+package com.icpx.tools;
+
+import com.icpx.database.DatabaseMigration;
+import com.icpx.database.TargetDAO;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Query-plan regression check for TargetDAO.
+ * Builds a synthetic database with the current schema, runs EXPLAIN QUERY PLAN on every
+ * *_SQL constant in TargetDAO and exits with status 1 if any query scans the whole targets
+ * table or sorts it without an index.
+ *
+ * Usage: QueryPlanAudit [rows]
+ */
+public class QueryPlanAudit {
+
+    // Queries that read every row on purpose
+    private static final Set<String> FULL_SCAN_ALLOWED = new HashSet<>(Arrays.asList("SELECT_ALL_FOR_SYNC_SQL"));
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        File dbFile = File.createTempFile("icpx-plan", ".db");
+        dbFile.deleteOnExit();
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath())) {
+            DatabaseMigration.runMigrations(conn);
+            populate(conn, rows);
+
+            List<String> failures = new ArrayList<>();
+            for (Field field : TargetDAO.class.getDeclaredFields()) {
+                if (!isSqlConstant(field)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String name = field.getName();
+                String sql = (String) field.get(null);
+
+                List<String> plan = explain(conn, sql);
+                String problem = FULL_SCAN_ALLOWED.contains(name) ? null : findProblem(plan);
+                System.out.printf("%-30s %s%n", name, problem == null ? "ok" : "FAIL: " + problem);
+                for (String step : plan) {
+                    System.out.println("    " + step);
+                }
+                if (problem != null) {
+                    failures.add(name);
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                System.out.println("Queries that regressed to full scans: " + failures);
+                System.exit(1);
+            }
+            System.out.println("All TargetDAO queries use indexes on " + rows + " rows");
+        }
+    }
+
+    private static boolean isSqlConstant(Field field) {
+        int modifiers = field.getModifiers();
+        return Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)
+            && field.getType() == String.class && field.getName().endsWith("_SQL");
+    }
+
+    private static List<String> explain(Connection conn, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        // Unbound parameters are NULL, which is fine for planning
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return Why the plan is a regression, or null if it is fine
+     */
+    private static String findProblem(List<String> plan) {
+        for (String step : plan) {
+            // "SCAN targets USING COVERING INDEX ..." still visits every row;
+            // "SCAN targets_fts VIRTUAL TABLE ..." is an index lookup, not a table scan
+            if (step.equals("SCAN targets") || step.startsWith("SCAN targets ")) {
+                return step;
+            }
+            if (step.contains("TEMP B-TREE FOR ORDER BY")) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    private static void populate(Connection conn, int rows) throws SQLException {
+        String[] statuses = {"pending", "achieved", "failed"};
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        conn.setAutoCommit(false);
+        String sql = "INSERT INTO targets (type, name, problem_link, topic_name, status, rating, archived, deadline, created_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < rows; i++) {
+                boolean problem = random.nextInt(4) != 0;
+                LocalDateTime created = now.minusMinutes(random.nextInt(2 * 365 * 24 * 60));
+                stmt.setString(1, problem ? "problem" : "topic");
+                stmt.setString(2, "Target " + i);
+                stmt.setString(3, problem ? "https://codeforces.com/contest/" + (1 + i / 8) + "/problem/" + (char) ('A' + i % 8) : null);
+                stmt.setString(4, problem ? null : "Topic " + i);
+                stmt.setString(5, statuses[random.nextInt(statuses.length)]);
+                stmt.setInt(6, 800 + 100 * random.nextInt(28));
+                stmt.setInt(7, random.nextInt(10) == 0 ? 1 : 0);
+                stmt.setTimestamp(8, Timestamp.valueOf(created.plusDays(1)));
+                // Same text format as CURRENT_TIMESTAMP so DATE(created_at) behaves like real data
+                stmt.setString(9, created.toString().replace('T', ' ').substring(0, 19));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+}
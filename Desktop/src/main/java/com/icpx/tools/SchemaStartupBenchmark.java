@@ -0,0 +1,68 @@
+package com.icpx.tools;
+
+import com.icpx.database.DatabaseMigration;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Measures the startup schema check on a scratch database: the first launch
+ * (all migrations) against later launches (schema already current), next to a bare
+ * PRAGMA user_version read. Connection opening is not included in the timings.
+ *
+ * Usage: SchemaStartupBenchmark [launches]
+ */
+public class SchemaStartupBenchmark {
+
+    private interface Check {
+        void run(Connection conn) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int launches = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        File dbFile = File.createTempFile("icpx-schema", ".db");
+        dbFile.deleteOnExit();
+        String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+
+        try (Connection conn = DriverManager.getConnection(url)) {
+            long start = System.nanoTime();
+            DatabaseMigration.runMigrations(conn);
+            System.out.printf("First launch:   %8.1f us (schema version %d)%n",
+                (System.nanoTime() - start) / 1000.0, DatabaseMigration.getSchemaVersion(conn));
+        }
+
+        // Warm up both paths before measuring
+        measure(url, launches / 4, DatabaseMigration::runMigrations);
+        measure(url, launches / 4, SchemaStartupBenchmark::readUserVersion);
+
+        System.out.printf("Later launches: %8.1f us avg%n", measure(url, launches, DatabaseMigration::runMigrations));
+        System.out.printf("Pragma read:    %8.1f us avg%n", measure(url, launches, SchemaStartupBenchmark::readUserVersion));
+    }
+
+    /**
+     * @return Average microseconds per check, each on a fresh connection like an app launch
+     */
+    private static double measure(String url, int launches, Check check) throws SQLException {
+        long total = 0;
+        for (int i = 0; i < launches; i++) {
+            try (Connection conn = DriverManager.getConnection(url)) {
+                long start = System.nanoTime();
+                check.run(conn);
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / 1000.0 / launches;
+    }
+
+    private static void readUserVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            rs.next();
+        }
+    }
+}
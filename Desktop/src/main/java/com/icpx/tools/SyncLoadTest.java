@@ -0,0 +1,115 @@
+package com.icpx.tools;
+
+import com.icpx.database.SyncStateDAO;
+import com.icpx.database.TargetDAO;
+import com.icpx.model.Target;
+import com.icpx.service.CloudSyncService;
+import com.icpx.service.LocalSyncBackend;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the cloud sync against a local stand-in for Firestore on a scratch database:
+ * a first upload of all targets, an upload after a few edits, an upload with nothing
+ * changed, one without the recorded content hashes, and a full and an incremental download. Every backend call waits the given
+ * latency and commits fail at the given rate; failed uploads are retried.
+ *
+ * Usage: SyncLoadTest [targets] [latencyMillis] [failureRate] [commitsInFlight]
+ */
+public class SyncLoadTest {
+
+    private static final String UID = "load-test";
+    private static final int EDITED_TARGETS = 1000;
+    private static final int MAX_ATTEMPTS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int targetCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 40;
+        double failureRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        int commitsInFlight = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        // Must be set before the database is first touched
+        File localDb = File.createTempFile("icpx-sync-local", ".db");
+        File cloudDb = File.createTempFile("icpx-sync-cloud", ".db");
+        localDb.deleteOnExit();
+        cloudDb.deleteOnExit();
+        System.setProperty("icpx.db.path", localDb.getAbsolutePath());
+
+        long start = System.nanoTime();
+        List<Target> targets = generateTargets(targetCount);
+        TargetDAO.BulkInsertResult inserted = TargetDAO.insertTargets(targets);
+        if (inserted == null) {
+            throw new IllegalStateException("Could not insert generated targets");
+        }
+        System.out.printf("Inserted %d targets in %d ms%n", inserted.inserted.size(), (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("Backend latency %d ms, failure rate %.2f, %d commits in flight%n",
+            latencyMillis, failureRate, commitsInFlight);
+
+        try (LocalSyncBackend backend = new LocalSyncBackend(cloudDb.getAbsolutePath(), latencyMillis, failureRate)) {
+            CloudSyncService sync = new CloudSyncService(backend, UID, commitsInFlight);
+
+            upload("First upload", sync);
+            System.out.printf("Cloud has %d target and %d history documents%n",
+                backend.countDocuments("users/" + UID + "/targets"), backend.countDocuments("users/" + UID + "/history"));
+
+            for (int i = 0; i < EDITED_TARGETS && i < inserted.inserted.size(); i++) {
+                Target target = inserted.inserted.get(i * (inserted.inserted.size() / EDITED_TARGETS));
+                target.setName(target.getName() + " (edited)");
+                TargetDAO.updateTarget(target);
+            }
+            upload("After " + EDITED_TARGETS + " edits", sync);
+            upload("Nothing changed", sync);
+
+            // Like a reinstall: hashes are gone, the history root in the cloud still matches
+            SyncStateDAO.clear();
+            upload("Sync state cleared", sync);
+
+            download("First download", sync);
+            download("Next download", sync);
+        }
+    }
+
+    private static void upload(String label, CloudSyncService sync) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                System.out.printf("%-20s %s%n", label + ":", sync.upload());
+                return;
+            } catch (Exception e) {
+                System.out.printf("%-20s attempt %d failed: %s%n", label + ":", attempt, e.getMessage());
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void download(String label, CloudSyncService sync) throws Exception {
+        long start = System.nanoTime();
+        int applied = sync.download();
+        System.out.printf("%-20s %d targets added or changed in %d ms%n", label + ":", applied, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Mostly problems, about half of them solved, with some topics in between
+     */
+    private static List<Target> generateTargets(int count) {
+        List<Target> targets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Target target;
+            if (i % 20 == 0) {
+                target = new Target("topic", "Topic " + i);
+                target.setTopicName("Topic " + i);
+                target.setWebsiteUrl("https://cp-algorithms.com/topic-" + i + ".html");
+            } else {
+                target = new Target("problem", "Problem " + i);
+                target.setProblemLink("https://codeforces.com/contest/" + (i / 7 + 1) + "/problem/" + (char) ('A' + i % 7));
+                target.setRating(800 + (i % 28) * 100);
+            }
+            target.setStatus(i % 2 == 0 ? "achieved" : "pending");
+            targets.add(target);
+        }
+        return targets;
+    }
+}
@@ -0,0 +1,115 @@
+package com.icpx.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs (no boxing).
+ * Not thread-safe; build it on one thread and publish it read-only.
+ */
+public class LongHashSet {
+
+    // 0 marks an empty slot; a stored 0 is tracked separately
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private boolean containsEmptyKey;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        slots = new long[LongHashing.tableSize(expectedSize)];
+    }
+
+    /**
+     * @return true if the value was not already present
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = true;
+            size++;
+            return true;
+        }
+
+        int mask = slots.length - 1;
+        int slot = LongHashing.mix(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        if (++size > LongHashing.maxFill(slots.length)) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmptyKey;
+        }
+
+        int mask = slots.length - 1;
+        int slot = LongHashing.mix(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copy the values into a new array (unordered)
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsEmptyKey) {
+            values[i++] = EMPTY;
+        }
+        for (long slot : slots) {
+            if (slot != EMPTY) {
+                values[i++] = slot;
+            }
+        }
+        return values;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        containsEmptyKey = false;
+        size = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = slots;
+        slots = new long[newCapacity];
+        int mask = newCapacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = LongHashing.mix(value) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+}
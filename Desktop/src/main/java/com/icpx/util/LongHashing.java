@@ -0,0 +1,32 @@
+package com.icpx.util;
+
+/**
+ * Shared hashing helpers for the primitive long collections
+ */
+final class LongHashing {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private LongHashing() {
+    }
+
+    /**
+     * Spread all 64 bits into the slot hash (packed keys differ mostly in the high or low word)
+     */
+    static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Power-of-two table size that holds expectedSize entries under the load factor
+     */
+    static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    static int maxFill(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    }
+}
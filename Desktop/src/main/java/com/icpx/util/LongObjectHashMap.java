@@ -0,0 +1,122 @@
+package com.icpx.util;
+
+/**
+ * Open-addressing hash map from primitive long keys to objects (no key boxing).
+ * Not thread-safe; build it on one thread and publish it read-only.
+ */
+public class LongObjectHashMap<V> {
+
+    // 0 marks an empty slot; the value for key 0 is held separately
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private Object[] values;
+    private boolean containsEmptyKey;
+    private V emptyKeyValue;
+    private int size;
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = LongHashing.tableSize(expectedSize);
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * @return The previous value for the key, or null
+     */
+    public V put(long key, V value) {
+        if (key == EMPTY) {
+            V previous = emptyKeyValue;
+            if (!containsEmptyKey) {
+                containsEmptyKey = true;
+                size++;
+            }
+            emptyKeyValue = value;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int slot = LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                V previous = valueAt(slot);
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > LongHashing.maxFill(keys.length)) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    public V get(long key) {
+        if (key == EMPTY) {
+            return emptyKeyValue;
+        }
+
+        int mask = keys.length - 1;
+        int slot = LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return valueAt(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return containsEmptyKey;
+        }
+
+        int mask = keys.length - 1;
+        int slot = LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new Object[newCapacity];
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = LongHashing.mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.icpx.util;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Ties background work to the lifetime of a view.
+ * When the view's root leaves its scene (the user navigated away), every tracked future
+ * is cancelled and no further UI callbacks run.
+ */
+public class ViewScope {
+
+    private final Set<CompletableFuture<?>> tracked = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> closeActions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    /**
+     * Create a scope that closes when the node is removed from its scene
+     */
+    public static ViewScope bindTo(Node node) {
+        ViewScope scope = new ViewScope();
+        node.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                scope.close();
+            }
+        });
+        return scope;
+    }
+
+    /**
+     * Track a future and deliver its outcome on the FX thread while the view is still open.
+     * Cancellations are not reported.
+     */
+    public <T> void handle(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        track(future).whenComplete((result, error) -> Platform.runLater(() -> {
+            if (closed) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof CancellationException)) {
+                onError.accept(cause);
+            }
+        }));
+    }
+
+    /**
+     * Cancel the future when this scope closes
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        if (closed) {
+            future.cancel(true);
+            return future;
+        }
+        tracked.add(future);
+        future.whenComplete((result, error) -> tracked.remove(future));
+        return future;
+    }
+
+    /**
+     * Run an action when this scope closes (e.g. to remove a listener)
+     */
+    public void onClose(Runnable action) {
+        if (closed) {
+            action.run();
+            return;
+        }
+        closeActions.add(action);
+    }
+
+    /**
+     * Cancel all tracked work and stop delivering callbacks
+     */
+    public void close() {
+        closed = true;
+        for (CompletableFuture<?> future : tracked) {
+            future.cancel(true);
+        }
+        tracked.clear();
+        for (Runnable action : closeActions) {
+            action.run();
+        }
+        closeActions.clear();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -7,11 +7,15 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Line;
+import javafx.scene.shape.Polyline;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PersonalRatingChart extends VBox {
 
     private static final double MAX_RATING = 10.0;
@@ -33,11 +37,14 @@ public class PersonalRatingChart extends VBox {
     private VBox floatingBox;
     private Label tierLabel;
     private Label valueLabel;
+    private Pane historyPane;
+    private List<Double> history = new ArrayList<>();
     
     // Config
     private double chartWidth = 600;
     private double chartHeight = 60; // Bar height
     private double topMargin = 100;   // Increased space for labels above bar
+    private double historyHeight = 80;
 
     public PersonalRatingChart() {
         this.setPadding(new Insets(20));
@@ -58,6 +65,13 @@ public class PersonalRatingChart extends VBox {
         drawChart(chartWidth);
         
         this.getChildren().add(chartPane);
+
+        // Rating history line, shown once there are at least two points
+        historyPane = new Pane();
+        historyPane.setPrefSize(chartWidth, historyHeight);
+        historyPane.setManaged(false);
+        historyPane.setVisible(false);
+        this.getChildren().add(historyPane);
         
         // Make it responsive to width changes
         this.widthProperty().addListener((obs, oldVal, newVal) -> {
@@ -69,6 +83,7 @@ public class PersonalRatingChart extends VBox {
 
     private void updateWidth(double width) {
         drawChart(width);
+        drawHistory(width);
     }
     
     private double currentRating = 0.0;
@@ -188,6 +203,46 @@ public class PersonalRatingChart extends VBox {
         drawChart(chartWidth > 0 ? chartWidth : 600);
     }
 
+    /**
+     * Plot the rating after each recorded change, oldest first
+     */
+    public void setHistory(List<Double> ratings) {
+        this.history = new ArrayList<>(ratings);
+        boolean show = history.size() >= 2;
+        historyPane.setManaged(show);
+        historyPane.setVisible(show);
+
+        drawHistory(chartWidth > 0 ? chartWidth : 600);
+    }
+
+    private void drawHistory(double width) {
+        historyPane.getChildren().clear();
+        historyPane.setPrefWidth(width);
+        if (history.size() < 2) {
+            return;
+        }
+
+        // Same 0-10 scale as the bar, with the newest change at the right edge
+        double step = width / (history.size() - 1);
+        Polyline line = new Polyline();
+        for (int i = 0; i < history.size(); i++) {
+            double rating = Math.max(0, Math.min(MAX_RATING, history.get(i)));
+            line.getPoints().addAll(i * step, historyHeight - rating / MAX_RATING * historyHeight);
+        }
+        line.setStroke(Color.web("#00a896"));
+        line.setStrokeWidth(2);
+
+        Line baseLine = new Line(0, historyHeight, width, historyHeight);
+        baseLine.setStroke(Color.LIGHTGRAY);
+
+        Text caption = new Text("Last " + (history.size() - 1) + " changes");
+        caption.setFont(Font.font("Arial", 10));
+        caption.setFill(Color.GRAY);
+        caption.setY(10);
+
+        historyPane.getChildren().addAll(baseLine, line, caption);
+    }
+
     private static class Tier {
         String name;
         double max;